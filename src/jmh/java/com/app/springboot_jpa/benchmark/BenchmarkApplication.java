@@ -0,0 +1,68 @@
+package com.app.springboot_jpa.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.PersonRepository;
+import com.app.springboot_jpa.services.PersonBulkWriter;
+
+/**
+ * Contexto de Spring para los benchmarks. No usa SpringbootJpaApplication
+ * porque su CommandLineRunner espera datos por consola; aquí solo se registran
+ * las entidades, los repositorios y los servicios.
+ * 
+ * La base de datos es H2 en memoria en modo MariaDB, el esquema se crea en cada
+ * arranque y se cargan la cantidad de personas pedida. El cache de segundo
+ * nivel se desactiva para medir las consultas y no el cache.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EntityScan(basePackageClasses = Person.class)
+@EnableJpaRepositories(basePackageClasses = PersonRepository.class)
+@ComponentScan(basePackageClasses = PersonBulkWriter.class)
+public class BenchmarkApplication {
+
+    static final String[] LANGUAGES = { "Java", "Python", "Kotlin", "JavaScript" };
+
+    public static ConfigurableApplicationContext start(int persons, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "--spring.devtools.restart.enabled=false"));
+        args.addAll(List.of(extraArgs));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        context.getBean(PersonBulkWriter.class).insertAll(generatePersons(persons));
+        return context;
+    }
+
+    /*
+     * Nombres únicos para que las búsquedas por nombre devuelvan una fila;
+     * apellidos y lenguajes repetidos como en datos reales.
+     */
+    static List<Person> generatePersons(int persons) {
+        List<Person> generated = new ArrayList<>(persons);
+        for (int i = 0; i < persons; i++) {
+            generated.add(new Person(null, "Name" + i, "Lastname" + (i % 100), LANGUAGES[i % LANGUAGES.length]));
+        }
+        return generated;
+    }
+}
@@ -0,0 +1,120 @@
+package com.app.springboot_jpa.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.app.springboot_jpa.entities.Person;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tiempo de flush y memoria retenida por el contexto de persistencia con
+ * todas las personas cargadas, para comparar el build con dirty tracking (por
+ * defecto) contra uno sin él:
+ * 
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="PersonFlushBenchmark"
+ * ./mvnw -Pbenchmark clean test-compile exec:exec -Djmh.args="PersonFlushBenchmark"
+ * -Dhibernate.enhance.dirty-tracking=false
+ * 
+ * Antes de cada invocación se cargan las personas en un EntityManager nuevo
+ * dentro de una transacción; flushUnchanged mide el flush sin cambios (solo el
+ * dirty checking) y flushAfterUpdate después de cambiar el lenguaje de una de
+ * cada cien personas. retainedBytes es el heap que ocupa el contexto de
+ * persistencia con las entidades cargadas y la copia del estado de cada una
+ * (EntityEntry.loadedState), que Hibernate guarda con o sin dirty tracking: se
+ * espera que cambie el tiempo de flush, no retainedBytes.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PersonFlushBenchmark {
+
+    @Param("100000")
+    public int persons;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private List<Person> loaded;
+    private long retainedBytes;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Heap {
+        public long retainedBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(persons);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        System.out.println("Person con bytecode enhancement: " + ManagedEntity.class.isAssignableFrom(Person.class)
+                + ", dirty tracking: " + SelfDirtinessTracker.class.isAssignableFrom(Person.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void load() {
+        long before = usedHeapAfterGc();
+        entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        loaded = entityManager.createQuery("select p from Person p", Person.class).getResultList();
+        retainedBytes = usedHeapAfterGc() - before;
+    }
+
+    @TearDown(Level.Invocation)
+    public void rollback() {
+        entityManager.getTransaction().rollback();
+        entityManager.close();
+        loaded = null;
+    }
+
+    @Benchmark
+    public void flushUnchanged(Heap heap) {
+        entityManager.flush();
+        heap.retainedBytes = retainedBytes;
+    }
+
+    @Benchmark
+    public void flushAfterUpdate(Heap heap) {
+        for (int i = 0; i < loaded.size(); i += 100) {
+            Person person = loaded.get(i);
+            person.setProgramingLanguage("Python".equals(person.getProgramingLanguage()) ? "Java" : "Python");
+        }
+        entityManager.flush();
+        heap.retainedBytes = retainedBytes;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,86 @@
+package com.app.springboot_jpa.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.PersonRepository;
+
+/**
+ * Memoria retenida por findAll() con y sin la deduplicación de name y
+ * lastname (app.interning.enabled).
+ * 
+ * Cada invocación carga la tabla completa, fuerza un GC y mide el heap usado
+ * mientras la lista sigue viva; la diferencia con el heap medido antes de la
+ * consulta se reporta en el contador retainedBytes. Los datos de
+ * BenchmarkApplication repiten 100 apellidos, así que la diferencia entre
+ * interning=false e interning=true es aproximadamente lo que ocupan los
+ * apellidos duplicados.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PersonInterningBenchmark {
+
+    @Param("1000000")
+    public int persons;
+
+    @Param({ "false", "true" })
+    public boolean interning;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository repository;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Heap {
+        public long retainedBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(persons, "--app.interning.enabled=" + interning,
+                "--app.interning.capacity=1048576");
+        repository = context.getBean(PersonRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Iterable<Person> findAllRetainedHeap(Heap heap) {
+        long before = usedHeapAfterGc();
+        Iterable<Person> all = repository.findAll();
+        heap.retainedBytes = usedHeapAfterGc() - before;
+        return all;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
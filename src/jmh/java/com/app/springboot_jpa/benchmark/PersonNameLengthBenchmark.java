@@ -0,0 +1,99 @@
+package com.app.springboot_jpa.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.app.springboot_jpa.dto.PersonNameLength;
+import com.app.springboot_jpa.repositories.PersonRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Consultas del nombre más corto y más largo calculando length(p.name) en cada
+ * fila (function*, como eran antes) contra la columna indexada name_length
+ * (column*, los métodos actuales de PersonRepository).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonNameLengthBenchmark {
+
+    @Param("100000")
+    public int persons;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository repository;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(persons);
+        repository = context.getBean(PersonRepository.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Integer functionMaxLength() {
+        return query("select max(length(p.name)) from Person p", Integer.class).get(0);
+    }
+
+    @Benchmark
+    public Integer columnMaxLength() {
+        return repository.getMaxLengthName();
+    }
+
+    @Benchmark
+    public List<PersonNameLength> functionLongestName() {
+        return query("select new com.app.springboot_jpa.dto.PersonNameLength(p.name, length(p.name)) from Person p"
+                + " where length(p.name) = (select max(length(p2.name)) from Person p2)", PersonNameLength.class);
+    }
+
+    @Benchmark
+    public List<PersonNameLength> columnLongestName() {
+        return repository.getLongestName();
+    }
+
+    @Benchmark
+    public List<PersonNameLength> functionShortestName() {
+        return query("select new com.app.springboot_jpa.dto.PersonNameLength(p.name, length(p.name)) from Person p"
+                + " where length(p.name) = (select min(length(p2.name)) from Person p2)", PersonNameLength.class);
+    }
+
+    @Benchmark
+    public List<PersonNameLength> columnShortestName() {
+        return repository.getMinLengthNameAndLength();
+    }
+
+    private <T> List<T> query(String jpql, Class<T> type) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery(jpql, type).getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.app.springboot_jpa.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.app.springboot_jpa.dto.PersonAggregates;
+import com.app.springboot_jpa.dto.PersonData;
+import com.app.springboot_jpa.dto.PersonDto;
+import com.app.springboot_jpa.dto.PersonTotals;
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.PersonRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Benchmarks de los métodos de PersonRepository.
+ * 
+ * Throughput da las operaciones por milisegundo y SampleTime los percentiles de
+ * latencia (p50, p90, p99, p99.9...). El perfilador gc (-prof gc, activado por
+ * defecto en el perfil benchmark) agrega gc.alloc.rate.norm, los bytes
+ * asignados por operación.
+ * 
+ * Grupos:
+ * derived vs query: el mismo filtro como query method y como @Query.
+ * entity vs dto vs record vs Object[]: la tabla completa como entidades y como
+ * proyecciones.
+ * inList: getPersonsByIds con listas de 10, 100 y 1000 ids.
+ * aggregate: funciones de agregación por separado y en un solo recorrido.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonRepositoryBenchmark {
+
+    @Param("10000")
+    public int persons;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository repository;
+    private EntityManagerFactory entityManagerFactory;
+    private String name;
+    private List<Long> ids10;
+    private List<Long> ids100;
+    private List<Long> ids1000;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(persons);
+        repository = context.getBean(PersonRepository.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        name = "Name" + persons / 2;
+        long minId = repository.getMinId();
+        ids10 = ids(minId, 10);
+        ids100 = ids(minId, 100);
+        ids1000 = ids(minId, 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private List<Long> ids(long minId, int size) {
+        long step = Math.max(1, persons / size);
+        return LongStream.range(0, size).map(i -> minId + i * step).boxed().toList();
+    }
+
+    @Benchmark
+    public Optional<Person> derivedFindByName() {
+        return repository.findByName(name);
+    }
+
+    @Benchmark
+    public Optional<Person> queryFindOneByName() {
+        return repository.findOneByName(name);
+    }
+
+    @Benchmark
+    public List<Person> derivedFindByProgramingLanguageAndName() {
+        return repository.findByProgramingLanguageAndName("Java", name);
+    }
+
+    @Benchmark
+    public List<Person> queryBuscarPorProgramingLanguage() {
+        return repository.buscarPorProgramingLanguage("Java", name);
+    }
+
+    @Benchmark
+    public Iterable<Person> entityFindAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public List<PersonDto> dtoFindAllPersonDto() {
+        return repository.findAllPersonDto();
+    }
+
+    @Benchmark
+    public List<PersonData> recordObtenerPersonDataList() {
+        return repository.obtenerPersonDataList();
+    }
+
+    @Benchmark
+    public List<Object[]> objectArrayPersonDataList() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager
+                    .createQuery("select p.id, p.name, p.lastname, p.programingLanguage from Person p", Object[].class)
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public List<Person> inList10() {
+        return repository.getPersonsByIds(ids10);
+    }
+
+    @Benchmark
+    public List<Person> inList100() {
+        return repository.getPersonsByIds(ids100);
+    }
+
+    @Benchmark
+    public List<Person> inList1000() {
+        return repository.getPersonsByIds(ids1000);
+    }
+
+    @Benchmark
+    public Long aggregateGetTotalPerson() {
+        return repository.getTotalPerson();
+    }
+
+    @Benchmark
+    public PersonAggregates aggregateGetResumeAggregationFunction() {
+        return repository.getResumeAggregationFunction();
+    }
+
+    @Benchmark
+    public PersonTotals aggregateGetTotals() {
+        return repository.getTotals();
+    }
+}
@@ -1,19 +1,50 @@
 package com.app.springboot_jpa;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 import java.util.Optional;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.app.springboot_jpa.dto.BulkWriteReport;
+import com.app.springboot_jpa.dto.KeysetPage;
+import com.app.springboot_jpa.dto.MultiGetResult;
+import com.app.springboot_jpa.dto.PersonAggregates;
+import com.app.springboot_jpa.dto.PersonData;
 import com.app.springboot_jpa.dto.PersonDto;
+import com.app.springboot_jpa.dto.PersonNameLength;
+import com.app.springboot_jpa.dto.PersonValues;
 import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.metrics.RepositoryMetrics;
 import com.app.springboot_jpa.repositories.PersonRepository;
+import com.app.springboot_jpa.services.PersonAsyncRepository;
+import com.app.springboot_jpa.services.PersonBulkOperations;
+import com.app.springboot_jpa.services.PersonBulkWriter;
+import com.app.springboot_jpa.services.PersonMultiGetService;
+import com.app.springboot_jpa.services.PersonCacheStatistics;
+import com.app.springboot_jpa.services.PersonCardinality;
+import com.app.springboot_jpa.services.PersonExporter;
+import com.app.springboot_jpa.services.PersonImporter;
+import com.app.springboot_jpa.services.ShardedPersonRepository;
+import com.app.springboot_jpa.services.PersonPageService;
+import com.app.springboot_jpa.services.PersonSearchIndex;
+import com.app.springboot_jpa.services.PersonSearchService;
+import com.app.springboot_jpa.services.PersonStatistics;
+import com.app.springboot_jpa.services.PersonStreamService;
 
 /**
  * En una aplicación de Spring Boot, implementar la interfaz CommandLineRunner
@@ -49,25 +80,129 @@ public class SpringbootJpaApplication implements CommandLineRunner {
 	@Autowired
 	private PersonRepository repository;
 
+	@Autowired
+	private PersonBulkWriter bulkWriter;
+
+	@Autowired
+	private PersonBulkOperations bulkOperations;
+
+	@Autowired
+	private PersonMultiGetService multiGetService;
+
+	@Autowired
+	private PersonAsyncRepository asyncRepository;
+
+	@Autowired
+	private PersonImporter importer;
+
+	/*
+	 * @Transactional solo se aplica cuando el método se invoca a través del proxy
+	 * de Spring; una llamada directa como list() desde run() no abre la
+	 * transacción (de solo lectura o no). Por eso run() invoca los métodos con
+	 * self, la misma instancia a través del proxy. @Lazy evita la referencia
+	 * circular al crear el bean.
+	 * 
+	 * En una transacción readOnly Spring (HibernateJpaDialect) ya deja la sesión
+	 * de Hibernate en modo de solo lectura con FlushMode.MANUAL: las entidades
+	 * cargadas no guardan la copia para el dirty checking y no hay flush.
+	 */
+	@Lazy
+	@Autowired
+	private SpringbootJpaApplication self;
+
+	/*
+	 * Modo por lotes sin interacción: --app.import.file=personas.csv importa el
+	 * archivo y termina sin leer nada de la consola
+	 */
+	@Value("${app.import.file:}")
+	private String importFile;
+
+	@Value("${app.import.batch-size:1000}")
+	private int importBatchSize;
+
+	@Autowired
+	private PersonExporter exporter;
+
+	@Autowired
+	private PersonCardinality cardinality;
+
+	/*
+	 * --app.export.file=personas.csv.gz exporta la tabla y termina; con
+	 * --app.export.shards=N se generan N archivos en paralelo por rangos de id
+	 */
+	@Value("${app.export.file:}")
+	private String exportFile;
+
+	@Value("${app.export.shards:1}")
+	private int exportShards;
+
+	@Autowired
+	private PersonStreamService streamService;
+
+	@Autowired
+	private PersonPageService pageService;
+
+	@Autowired
+	private PersonCacheStatistics cacheStatistics;
+
+	@Autowired
+	private PersonSearchIndex searchIndex;
+
+	@Autowired
+	private PersonSearchService searchService;
+
+	@Autowired
+	private PersonStatistics statistics;
+
+	@Autowired
+	private RepositoryMetrics repositoryMetrics;
+
+	// Solo existe con app.sharding.enabled=true
+	@Autowired
+	private ObjectProvider<ShardedPersonRepository> shardedRepository;
+
 	public static void main(String[] args) {
-		SpringApplication.run(SpringbootJpaApplication.class, args);
+		SpringApplication application = new SpringApplication(SpringbootJpaApplication.class);
+		// Guarda los pasos del arranque para StartupTimingReport
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 
 	@Override
 	public void run(String... args) throws Exception {
-		// list();
-		// findOne();
-		// create();
-		update();
-		// delete();
-		// delete2();
-		// personalizedQueries2();
-		// personalizedQueriesDistinct();
-		// personalizedQueriesConcatUpperAndLowerCase();
-		// personalizedQueriesBetween();
-		// queriesFunctionAggregation();
-		// subQueries();
-		// whereIn();
+		if (!importFile.isBlank()) {
+			System.out.println(importer.importFile(Path.of(importFile), importBatchSize));
+			return;
+		}
+		if (!exportFile.isBlank()) {
+			System.out.println(exporter.exportFile(Path.of(exportFile), exportShards));
+			return;
+		}
+		ShardedPersonRepository sharded = shardedRepository.getIfAvailable();
+		if (sharded != null && sharded.getShardCount() > 1) {
+			// Los ejemplos de abajo usan PersonRepository y solo verían el shard 0
+			self.sharding();
+			return;
+		}
+		// self.list();
+		// self.findOne();
+		// self.findAsync();
+		// self.search();
+		// self.create();
+		// self.bulkCreate();
+		self.update();
+		// self.delete();
+		// self.delete2();
+		// self.personalizedQueries2();
+		// self.personalizedQueriesDistinct();
+		// self.personalizedQueriesConcatUpperAndLowerCase();
+		// self.personalizedQueriesBetween();
+		// self.keysetPagination();
+		// self.queriesFunctionAggregation();
+		// self.subQueries();
+		// self.whereIn();
+		// self.sharding();
+		// System.out.println(repositoryMetrics.dump());
 	}
 
 	/**
@@ -151,30 +286,56 @@ public class SpringbootJpaApplication implements CommandLineRunner {
 		repository.findById(personCreatedInDB.getId()).ifPresent(System.out::println);
 	}
 
-	@Transactional
+	/**
+	 * Inserta una cantidad de personas generadas con el modo masivo y con
+	 * saveAll, mostrando las filas por segundo de cada camino para compararlos.
+	 */
+	public void bulkCreate() {
+		Scanner scanner = new Scanner(System.in);
+		System.out.println("Ingrese la cantidad de personas a insertar por cada modo:");
+		int total = scanner.nextInt();
+		scanner.close();
+
+		BulkWriteReport batched = bulkWriter.insertAll(generatePersons(total));
+		System.out.println(batched);
+
+		long start = System.nanoTime();
+		repository.saveAll(generatePersons(total));
+		BulkWriteReport saveAll = new BulkWriteReport("saveAll", total, Duration.ofNanos(System.nanoTime() - start));
+		System.out.println(saveAll);
+	}
+
+	private List<Person> generatePersons(int total) {
+		String[] languages = { "Java", "Python", "Kotlin", "JavaScript" };
+		List<Person> persons = new ArrayList<>(total);
+		for (int i = 0; i < total; i++) {
+			persons.add(new Person(null, "Name" + i, "Lastname" + i, languages[i % languages.length]));
+		}
+		return persons;
+	}
+
+	/*
+	 * update y delete usan operaciones masivas: una sola sentencia UPDATE o
+	 * DELETE sin cargar la entidad antes.
+	 */
 	public void update() {
 		Scanner scanner = new Scanner(System.in);
-		System.out.println("Ingrese el ID de la persona");
-		Long id = scanner.nextLong();
-		Optional<Person> personOptional = repository.findById(id);
-		personOptional.ifPresent(p -> {
-			System.out.println(p);
-			System.out.println("Ingrese el nuevo lenguaje de programación:");
-			String programmingLanguage = scanner.next();
-			p.setProgramingLanguage(programmingLanguage);
-			Person personUpdate = repository.save(p);
-			System.out.println(personUpdate);
-		});
+		System.out.println("Ingrese los ID de las personas separados por coma");
+		List<Long> ids = Arrays.stream(scanner.next().split(",")).map(Long::valueOf).toList();
+		System.out.println("Ingrese el nuevo lenguaje de programación:");
+		String programmingLanguage = scanner.next();
+		int updated = bulkOperations.updateProgramingLanguage(ids, programmingLanguage);
+		System.out.println("Personas actualizadas: " + updated);
+		repository.getPersonsByIds(ids).forEach(System.out::println);
 		scanner.close();
 	}
 
-	@Transactional
 	public void delete() {
 		Scanner scanner = new Scanner(System.in);
-		System.out.println("Ingrese el ID de la persona a eliminar:");
-		Long id = scanner.nextLong();
-		repository.deleteById(id);
-		repository.findAll().forEach(System.out::println);
+		System.out.println("Ingrese los ID de las personas a eliminar separados por coma:");
+		List<Long> ids = Arrays.stream(scanner.next().split(",")).map(Long::valueOf).toList();
+		int deleted = bulkOperations.deleteByIds(ids);
+		System.out.println("Personas eliminadas: " + deleted);
 		scanner.close();
 	}
 
@@ -188,7 +349,7 @@ public class SpringbootJpaApplication implements CommandLineRunner {
 		optionalPerson.ifPresentOrElse(repository::delete,
 				() -> System.out.println("No existe una persona con el ID ingresado"));
 
-		repository.findAll().forEach(System.out::println);
+		System.out.println("Total de personas: " + statistics.getTotalPerson());
 		scanner.close();
 	}
 
@@ -215,16 +376,11 @@ public class SpringbootJpaApplication implements CommandLineRunner {
 
 		System.out.println("Ingrese el ID de la persona a buscar");
 		Long id3 = scanner.nextLong();
-		Object[] personReg = (Object[]) repository.obtenerPersonDataById(id3);
-		System.out.println("id=" + personReg[0] + ", nombre=" + personReg[1] + ", apellido=" + personReg[2]
-				+ ", lenguaje=" + personReg[3]);
+		repository.obtenerPersonDataById(id3).ifPresent(System.out::println);
 
 		System.out.println("====================== consulta por lista ======================");
-		List<Object[]> regs = repository.obtenerPersonDataList();
-		regs.forEach(p -> {
-			System.out.println("id=" + p[0] + ", nombre=" + p[1] + ", apellido=" + p[2]
-					+ ", lenguaje=" + p[3]);
-		});
+		List<PersonData> regs = repository.obtenerPersonDataList();
+		regs.forEach(System.out::println);
 
 		scanner.close();
 	}
@@ -232,9 +388,9 @@ public class SpringbootJpaApplication implements CommandLineRunner {
 	@Transactional(readOnly = true)
 	public void personalizedQueries2() {
 		System.out.println("========== consulta por objeto persona y lenguaje de programacion ==========");
-		List<Object[]> personRegs = repository.findAllMixPerson();
+		List<PersonData> personRegs = repository.findAllMixPerson();
 		personRegs.forEach(reg -> {
-			System.out.println("programmingLanguage=" + reg[1] + ", person=" + reg[0]);
+			System.out.println("programmingLanguage=" + reg.programingLanguage() + ", person=" + reg);
 		});
 
 		System.out.println(
@@ -261,6 +417,12 @@ public class SpringbootJpaApplication implements CommandLineRunner {
 		System.out.println("========== cantidad de lenguajes de programación ==========");
 		Long totalLanguage = repository.findAllProgrammingLanguageDistinctCount();
 		System.out.println("Total: " + totalLanguage);
+
+		System.out.println("========== cantidad de valores distintos (" + cardinality.getMode() + ", error estándar "
+				+ String.format("%.2f%%", cardinality.getStandardError() * 100) + ") ==========");
+		System.out.println("Nombres: " + cardinality.distinctNames());
+		System.out.println("Apellidos: " + cardinality.distinctLastnames());
+		System.out.println("Lenguajes: " + cardinality.distinctProgramingLanguages());
 	}
 
 	@Transactional(readOnly = true)
@@ -274,6 +436,9 @@ public class SpringbootJpaApplication implements CommandLineRunner {
 		System.out.println("========== Lower Case ==========");
 		names = repository.findAllFullNameConcatLower();
 		names.forEach(System.out::println);
+		System.out.println("========== busqueda por nombre completo sin distinguir mayusculas ==========");
+		repository.findByFullNameIgnoreCase("DANIEL santiago").forEach(System.out::println);
+		repository.findByFullNameStartingWithIgnoreCase("LIO").forEach(System.out::println);
 	}
 
 	@Transactional(readOnly = true)
@@ -292,53 +457,58 @@ public class SpringbootJpaApplication implements CommandLineRunner {
 		person.forEach(System.out::println);
 	}
 
+	public void keysetPagination() {
+		System.out.println("========== paginacion keyset ordenada por nombre ==========");
+		String token = null;
+		int pageNumber = 1;
+		do {
+			KeysetPage<Person> page = pageService.getAllOrderByName(token);
+			System.out.println("----- pagina " + pageNumber++ + " -----");
+			page.content().forEach(System.out::println);
+			token = page.nextToken();
+		} while (token != null);
+	}
+
 	@Transactional(readOnly = true)
 	public void queriesFunctionAggregation() {
 		System.out.println("========== consulta con el total de registros de la tabla persona ==========");
-		Long count = repository.getTotalPerson();
+		Long count = statistics.getTotalPerson();
 		System.out.println(count);
 		System.out.println("========== consulta con el valor minimo del id ==========");
-		Long min = repository.getMinId();
+		Long min = statistics.getMinId();
 		System.out.println(min);
 		System.out.println("========== consulta con el valor maximo del id ==========");
-		Long max = repository.getMaxId();
+		Long max = statistics.getMaxId();
 		System.out.println(max);
 		System.out.println("========== consulta de el nombre y su largo de caracteres ==========");
-		List<Object[]> regs = repository.getPersonNameLength();
+		List<PersonNameLength> regs = repository.getPersonNameLength();
 		regs.forEach(reg -> {
-			String name = (String) reg[0];
-			Integer length = (Integer) reg[1];
-			System.out.println("name: " + name + ", length: " + length);
+			System.out.println("name: " + reg.name() + ", length: " + reg.length());
 		});
 		System.out.println("========== consulta de el nombre mas corto ==========");
-		Integer minLengthName = repository.getMinLengthName();
+		Integer minLengthName = statistics.getMinLengthName();
 		System.out.println(minLengthName);
 		System.out.println("========== consulta de el nombre mas largo ==========");
-		Integer maxLengthName = repository.getMaxLengthName();
+		Integer maxLengthName = statistics.getMaxLengthName();
 		System.out.println(maxLengthName);
 		System.out.println("========== consulta de el nombre mas corto con su cantidad de caracteres ==========");
 		regs = repository.getMinLengthNameAndLength();
 		regs.forEach(reg -> {
-			String name = (String) reg[0];
-			Integer length = (Integer) reg[1];
-			System.out.println("Name: " + name + ", Length: " + length);
+			System.out.println("Name: " + reg.name() + ", Length: " + reg.length());
 		});
 		System.out.println(
 				"========== consultas resumen de funciones de agregacion min, max, sum, avg, count ==========");
-		Object[] resumeReg = (Object[]) repository.getResumeAggregationFunction();
-		System.out.println("min=" + resumeReg[0] + ", max=" + resumeReg[1] + ", sum=" + resumeReg[2] + ", avg="
-				+ resumeReg[3] + ", count=" + resumeReg[4]);
+		PersonAggregates resumeReg = statistics.getResumeAggregationFunction();
+		System.out.println(resumeReg);
 
 	}
 
 	@Transactional(readOnly = true)
 	public void subQueries() {
 		System.out.println("========== consulta por el nombre mas corto y su largo ==========");
-		List<Object[]> regs = repository.getLongestName();
+		List<PersonNameLength> regs = repository.getLongestName();
 		regs.forEach(reg -> {
-			String name = (String) reg[0];
-			Integer length = (Integer) reg[1];
-			System.out.println("name=" + name + ", length=" + length);
+			System.out.println("name=" + reg.name() + ", length=" + reg.length());
 		});
 
 		System.out.println("========== consulta para obtener el ultimo registro de Persona ==========");
@@ -351,6 +521,11 @@ public class SpringbootJpaApplication implements CommandLineRunner {
 		System.out.println("========== consulta where in ==========");
 		List<Person> person = repository.getPersonsByIds(Arrays.asList(1L, 2L, 3L));
 		person.forEach(System.out::println);
+
+		System.out.println("========== consulta por muchos ids en bloques paralelos ==========");
+		MultiGetResult<Person> result = multiGetService.findAllByIds(Arrays.asList(3L, 1L, 99L, 2L));
+		result.found().forEach(System.out::println);
+		System.out.println("No encontrados: " + result.missing());
 	}
 
 	@Transactional(readOnly = true)
@@ -363,12 +538,34 @@ public class SpringbootJpaApplication implements CommandLineRunner {
 		repository.findOneLikeName("nel").ifPresent(System.out::println);
 		repository.findByName("Lionel").ifPresent(System.out::println);
 		repository.findByNameContaining("anio").ifPresent(System.out::println);
+		cacheStatistics.all().forEach(System.out::println);
+	}
+
+	public void findAsync() {
+		System.out.println("========== consultas asincronas en hilos virtuales ==========");
+		List<CompletableFuture<String>> fullNames = LongStream.rangeClosed(1, 5)
+				.mapToObj(asyncRepository::getFullNameById)
+				.toList();
+		CompletableFuture.allOf(fullNames.toArray(CompletableFuture[]::new)).join();
+		fullNames.forEach(fullName -> System.out.println(fullName.join()));
+		asyncRepository.findByName("Lionel").join().ifPresent(System.out::println);
+	}
+
+	public void search() {
+		System.out.println("========== reconstruccion del indice de trigramas ==========");
+		System.out.println("Personas indexadas: " + searchIndex.rebuild());
+		System.out.println("========== busqueda por subcadena en el nombre ==========");
+		searchService.searchName("nel", 0, 20).forEach(System.out::println);
+		searchService.searchName("anio", 0, 20).forEach(System.out::println);
+		System.out.println("========== busqueda por subcadena en el apellido ==========");
+		searchService.searchLastname("al", 0, 20).forEach(System.out::println);
 	}
 
 	@Transactional(readOnly = true)
 	public void list() {
-		List<Person> persons = (List<Person>) repository.findAll();
-		persons.stream().forEach(person -> System.out.println(person));
+		// Se recorre la tabla con un cursor en lugar de cargarla completa en una List
+		long total = streamService.forEach(System.out::println);
+		System.out.println("Total: " + total);
 		System.out.println("--------------------------------");
 
 		List<Person> persons2 = (List<Person>) repository.findByProgramingLanguage("Kotlin");
@@ -383,7 +580,32 @@ public class SpringbootJpaApplication implements CommandLineRunner {
 		persons4.stream().forEach(p -> System.out.println(p));
 
 		System.out.println("---------------------------------------");
-		List<Object[]> personValues = (List<Object[]>) repository.obtenerPersonValues();
-		personValues.stream().forEach(p -> System.out.println(p[0] + " es experto en " + p[1]));
+		List<PersonValues> personValues = repository.obtenerPersonValues();
+		personValues.stream().forEach(p -> System.out.println(p.name() + " es experto en " + p.programingLanguage()));
+	}
+
+	/*
+	 * Sin @Transactional: ShardedPersonRepository abre una transacción por shard
+	 * después de elegir el shard, la conexión no puede venir de una transacción
+	 * ya abierta.
+	 */
+	public void sharding() {
+		ShardedPersonRepository sharded = shardedRepository.getIfAvailable();
+		if (sharded == null) {
+			System.out.println("Sharding deshabilitado (app.sharding.enabled=false)");
+			return;
+		}
+		System.out.println("========== shards: " + sharded.getShardCount() + " ==========");
+		List<Person> created = sharded.insertAll(List.of(new Person(null, "Ada", "Lovelace", "Java"),
+				new Person(null, "Alan", "Turing", "Python")));
+		created.forEach(System.out::println);
+		System.out.println("========== total de personas en todos los shards ==========");
+		System.out.println(sharded.getTotalPerson());
+		System.out.println("========== funciones de agregacion combinadas ==========");
+		System.out.println(sharded.getResumeAggregationFunction());
+		System.out.println("========== personas ordenadas por nombre ==========");
+		sharded.getAllOrderByName().forEach(System.out::println);
+		System.out.println("========== busqueda por id en su shard ==========");
+		sharded.findById(created.get(0).getId()).ifPresent(System.out::println);
 	}
 }
@@ -0,0 +1,154 @@
+package com.app.springboot_jpa.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a una réplica y todo
+ * lo demás (escrituras y accesos fuera de una transacción) a la primaria.
+ * 
+ * AbstractRoutingDataSource decide el destino en cada getConnection con
+ * determineCurrentLookupKey. Para que la marca readOnly de la transacción ya
+ * esté disponible en ese momento, debe envolverse en un
+ * LazyConnectionDataSourceProxy, que obtiene la conexión real recién en la
+ * primera sentencia.
+ * 
+ * Una réplica marcada como no disponible (retraso mayor al permitido o error
+ * al medirlo) se excluye; si no queda ninguna, la lectura va a la primaria.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public enum Strategy {
+        ROUND_ROBIN, LEAST_LOADED
+    }
+
+    static final String PRIMARY = "primary";
+
+    private final List<ReplicaNode> replicas = new ArrayList<>();
+    private final Strategy strategy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Strategy strategy) {
+        this.strategy = strategy;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((key, dataSource) -> {
+            this.replicas.add(new ReplicaNode(key, dataSource));
+            targets.put(key, dataSource);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        ReplicaNode replica = selectReplica();
+        return replica == null ? PRIMARY : replica.key;
+    }
+
+    private ReplicaNode selectReplica() {
+        List<ReplicaNode> healthy = replicas.stream().filter(replica -> replica.healthy).toList();
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        if (strategy == Strategy.LEAST_LOADED) {
+            ReplicaNode selected = healthy.get(0);
+            for (ReplicaNode replica : healthy) {
+                if (replica.activeConnections() < selected.activeConnections()) {
+                    selected = replica;
+                }
+            }
+            return selected;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    public void setReplicaHealthy(String key, boolean healthy) {
+        replicas.stream().filter(replica -> replica.key.equals(key)).forEach(replica -> replica.healthy = healthy);
+    }
+
+    /**
+     * Mide el retraso de replicación de cada réplica con lagQuery y excluye las
+     * que superan maxLag, no responden o no están replicando.
+     */
+    public void checkReplicaLag(String lagQuery, Duration maxLag) {
+        for (ReplicaNode replica : replicas) {
+            if (lagQuery == null || lagQuery.isBlank()) {
+                replica.healthy = true;
+                continue;
+            }
+            try (Connection connection = replica.dataSource.getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery(lagQuery)) {
+                if (!rs.next()) {
+                    replica.healthy = false;
+                    continue;
+                }
+                long lag = rs.getLong(lagColumn(rs));
+                replica.healthy = !rs.wasNull() && lag <= maxLag.toSeconds();
+            } catch (SQLException e) {
+                replica.healthy = false;
+            }
+        }
+    }
+
+    private static int lagColumn(ResultSet rs) {
+        try {
+            return rs.findColumn("Seconds_Behind_Master");
+        } catch (SQLException e) {
+            return 1;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ReplicaNode replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    // Se intenta cerrar el resto de las réplicas de todas formas
+                }
+            }
+        }
+    }
+
+    private static class ReplicaNode {
+        final String key;
+        final DataSource dataSource;
+        volatile boolean healthy = true;
+
+        ReplicaNode(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+
+        int activeConnections() {
+            if (dataSource instanceof HikariDataSource hikari) {
+                HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                return pool == null ? 0 : pool.getActiveConnections();
+            }
+            return 0;
+        }
+    }
+}
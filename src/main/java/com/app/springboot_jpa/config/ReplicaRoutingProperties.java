@@ -0,0 +1,35 @@
+package com.app.springboot_jpa.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuración del enrutamiento de lecturas a réplicas (prefijo
+ * app.datasource.routing).
+ * 
+ * enabled: activa el enrutamiento; si es false se usa solo spring.datasource.
+ * strategy: cómo se elige la réplica, ROUND_ROBIN o LEAST_LOADED (la que
+ * tiene menos conexiones activas).
+ * maxLag: retraso máximo de replicación tolerado antes de dejar de usar una
+ * réplica.
+ * lagCheckInterval: cada cuánto se mide el retraso.
+ * lagQuery: consulta que devuelve el retraso en segundos en la columna
+ * Seconds_Behind_Master (o en la primera columna). Vacía desactiva la medición,
+ * útil con bases embebidas.
+ * replicas: url, usuario y contraseña de cada réplica.
+ */
+@ConfigurationProperties("app.datasource.routing")
+public record ReplicaRoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("ROUND_ROBIN") ReadWriteRoutingDataSource.Strategy strategy,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("2s") Duration lagCheckInterval,
+        @DefaultValue("SHOW SLAVE STATUS") String lagQuery,
+        List<Replica> replicas) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.app.springboot_jpa.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.SelectableMapping;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verificación del esquema con un checksum en lugar de ddl-auto=update.
+ * 
+ * El checksum es un SHA-256 de la lista ordenada de tabla.columna, tipo JDBC y
+ * largo de todas las entidades, calculado a partir del modelo de Hibernate ya
+ * construido, sin consultar la base de datos. app.schema.check decide qué
+ * hacer con él al iniciar:
+ * 
+ * record (por defecto): después de que ddl-auto=update dejó el esquema al día,
+ * guarda el checksum en schema_version.
+ * verify (perfil fast-start, con ddl-auto=none): lee el checksum guardado y
+ * detiene el arranque si no coincide, en una sola consulta en lugar de
+ * inspeccionar cada tabla. Los índices no forman parte del checksum.
+ */
+@Component
+public class SchemaChecksum {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaChecksum.class);
+
+    private static final String NAME = "entities";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.schema.check:record}")
+    private String mode;
+
+    @Autowired
+    private ApplicationStartup applicationStartup;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ContextRefreshedEvent.class)
+    public void onStartup() {
+        StartupStep step = applicationStartup.start("app.schema.check");
+        try {
+            check();
+        } finally {
+            step.end();
+        }
+    }
+
+    private void check() {
+        String expected = compute();
+        List<String> stored = jdbcTemplate.queryForList("select checksum from schema_version where name = ?",
+                String.class, NAME);
+        if ("verify".equals(mode)) {
+            if (stored.isEmpty() || !stored.get(0).equals(expected)) {
+                throw new IllegalStateException("El esquema de la base de datos no coincide con las entidades (checksum "
+                        + expected + ", guardado " + (stored.isEmpty() ? "ninguno" : stored.get(0))
+                        + "). Ejecute la aplicación una vez sin el perfil fast-start para actualizarlo.");
+            }
+        } else if (stored.isEmpty() || !stored.get(0).equals(expected)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("delete from schema_version where name = ?", NAME);
+                jdbcTemplate.update("insert into schema_version (name, checksum, updated_at) values (?, ?, ?)", NAME,
+                        expected, Timestamp.valueOf(LocalDateTime.now()));
+            });
+            log.info("Checksum del esquema guardado: {}", expected);
+        }
+    }
+
+    public String compute() {
+        SortedSet<String> columns = new TreeSet<>();
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .forEachEntityDescriptor(persister -> {
+                    persister.getIdentifierMapping().forEachSelectable((index, column) -> columns.add(describe(column)));
+                    persister.forEachSelectable((index, column) -> columns.add(describe(column)));
+                });
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String column : columns) {
+                digest.update(column.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String describe(SelectableMapping column) {
+        return column.getContainingTableExpression() + "." + column.getSelectionExpression() + " "
+                + column.getJdbcMapping().getJdbcType().getDefaultSqlTypeCode() + " " + column.getLength();
+    }
+}
@@ -0,0 +1,39 @@
+package com.app.springboot_jpa.config;
+
+/**
+ * Shard del hilo actual, que ShardRoutingDataSource usa para elegir la base de
+ * datos en cada getConnection. Sin shard asignado (null) se usa el shard 0,
+ * que es spring.datasource.
+ * 
+ * Debe asignarse antes de iniciar la transacción, porque la conexión se
+ * obtiene al comenzarla y queda fija hasta el final.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Asigna el shard del hilo (null para el shard por defecto) y devuelve el
+     * anterior, para restaurarlo con restore.
+     */
+    public static Integer set(Integer shard) {
+        Integer previous = CURRENT.get();
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+        return previous;
+    }
+
+    public static void restore(Integer previous) {
+        set(previous);
+    }
+}
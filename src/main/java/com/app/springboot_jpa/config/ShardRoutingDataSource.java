@@ -0,0 +1,148 @@
+package com.app.springboot_jpa.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * DataSource que reparte la tabla persons entre varias bases de datos
+ * (shards) según el id de la persona.
+ * 
+ * RANGE: los ids 1..rangeSize van al shard 0, los siguientes rangeSize al
+ * shard 1, y así sucesivamente; los ids posteriores al último rango quedan en
+ * el último shard. Mantiene juntos los ids consecutivos (los recorridos por
+ * rango de id tocan pocos shards) pero las inserciones nuevas se concentran en
+ * un solo shard.
+ * HASH: el shard es el hash del id módulo la cantidad de shards; reparte las
+ * filas y las inserciones de forma pareja.
+ * 
+ * La conexión se toma del shard indicado en ShardContext; sin shard asignado
+ * se usa el shard 0, donde además están las tablas globales (secuencia de ids,
+ * programming_languages, schema_version...).
+ * 
+ * Una transacción no cambia de conexión después de comenzar, así que las
+ * escrituras de PersonRepository (save, saveAll, PersonBulkWriter,
+ * PersonImporter) solo son válidas para personas del shard de la transacción;
+ * PersonShardListener las rechaza con checkShardOf. Las sentencias masivas y
+ * los valores calculados sobre la tabla completa (PersonStatistics,
+ * PersonCardinality) se rechazan con checkSingleShard mientras haya más de un
+ * shard. Las consultas de lectura (PersonPageService, PersonStreamService,
+ * PersonMultiGetService, PersonSearchService, PersonAsyncRepository) se
+ * rechazan con checkShardSelected salvo que el hilo haya elegido un shard con
+ * ShardContext, como hace ShardedPersonRepository en cada shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public enum Strategy {
+        RANGE, HASH
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRoutingDataSource.class);
+
+    private final List<DataSource> shards;
+    private final Strategy strategy;
+    private final long rangeSize;
+
+    public ShardRoutingDataSource(List<DataSource> shards, Strategy strategy, long rangeSize) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos un shard");
+        }
+        if (rangeSize < 1) {
+            throw new IllegalArgumentException("app.sharding.range-size debe ser positivo: " + rangeSize);
+        }
+        this.shards = List.copyOf(shards);
+        this.strategy = strategy;
+        this.rangeSize = rangeSize;
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        return shard == null ? 0 : shard;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Shard donde está (o debe guardarse) la persona con ese id.
+     */
+    public int shardFor(long id) {
+        if (strategy == Strategy.HASH) {
+            long h = id * 0x9e3779b97f4a7c15L;
+            return (int) Long.remainderUnsigned(h ^ (h >>> 32), shards.size());
+        }
+        long shard = Math.max(0, id - 1) / rangeSize;
+        return (int) Math.min(shard, shards.size() - 1);
+    }
+
+    /**
+     * Falla si la persona con ese id no pertenece al shard de la transacción
+     * actual: quedaría guardada donde findById no la busca.
+     */
+    public void checkShardOf(long id) {
+        int current = (int) determineCurrentLookupKey();
+        int owner = shardFor(id);
+        if (owner != current) {
+            throw new IllegalStateException("La persona " + id + " pertenece al shard " + owner
+                    + " pero la transacción usa el shard " + current + "; use ShardedPersonRepository");
+        }
+    }
+
+    /**
+     * Falla si hay más de un shard, para operaciones que solo verían o
+     * modificarían las filas del shard 0.
+     */
+    public void checkSingleShard(String operation) {
+        if (shards.size() > 1) {
+            throw new IllegalStateException(operation + " solo alcanza el shard 0 y hay " + shards.size()
+                    + " shards; use ShardedPersonRepository");
+        }
+    }
+
+    /**
+     * Falla si hay más de un shard y el hilo no eligió uno con ShardContext,
+     * para consultas que solo verían las filas del shard de la conexión. Con un
+     * shard elegido la consulta lee ese shard a propósito.
+     */
+    public void checkShardSelected(String operation) {
+        if (ShardContext.current() == null) {
+            checkSingleShard(operation);
+        }
+    }
+
+    /**
+     * Cierra los pools de los shards agregados; el shard 0 es un bean propio y
+     * lo cierra Spring.
+     */
+    @Override
+    public void close() {
+        for (int i = 1; i < shards.size(); i++) {
+            if (shards.get(i) instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    // Se intenta cerrar el resto de los shards de todas formas
+                    log.warn("No se pudo cerrar el shard {}", i, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.app.springboot_jpa.config;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * ddl-auto solo actúa sobre la conexión por defecto, el shard 0. Al iniciar,
+ * este componente crea el esquema completo de las entidades en cada shard
+ * adicional que todavía no tiene la tabla persons, con el SchemaManager de
+ * Hibernate ejecutado con ShardContext apuntando a ese shard.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardSchemaInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+    @Autowired
+    private ShardRoutingDataSource shards;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ContextRefreshedEvent.class)
+    public void onStartup() throws SQLException {
+        for (int shard = 1; shard < shards.getShardCount(); shard++) {
+            Integer previous = ShardContext.set(shard);
+            try {
+                if (!hasPersonsTable()) {
+                    entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager().exportMappedObjects(true);
+                    log.info("Esquema creado en el shard {}", shard);
+                }
+            } finally {
+                ShardContext.restore(previous);
+            }
+        }
+    }
+
+    private boolean hasPersonsTable() throws SQLException {
+        try (Connection connection = shards.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : new String[] { "persons", "PERSONS" }) {
+                try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, table, null)) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
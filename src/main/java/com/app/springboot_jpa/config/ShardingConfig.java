@@ -0,0 +1,73 @@
+package com.app.springboot_jpa.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Reemplaza el DataSource de Spring Boot por ShardRoutingDataSource cuando
+ * app.sharding.enabled=true. No se puede combinar con
+ * app.datasource.routing.enabled (ambas configuraciones declaran el DataSource
+ * principal).
+ * 
+ * El shard 0 se construye igual que lo haría Spring Boot a partir de
+ * spring.datasource y spring.datasource.hikari; cada shard adicional tiene su
+ * propio pool con el mismo tamaño máximo. El cache de consultas de Hibernate
+ * se desactiva, porque sus entradas no distinguen el shard donde se ejecutó
+ * la consulta; el cache de entidades sigue activo, los ids son únicos entre
+ * todos los shards.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource shard0DataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource shard0DataSource,
+            ShardingProperties properties) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(shard0DataSource);
+        List<ShardingProperties.Shard> configured = properties.shards() == null ? List.of() : properties.shards();
+        for (int i = 0; i < configured.size(); i++) {
+            ShardingProperties.Shard shard = configured.get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + (i + 1));
+            dataSource.setJdbcUrl(shard.url());
+            dataSource.setUsername(shard.username());
+            dataSource.setPassword(shard.password());
+            dataSource.setMaximumPoolSize(shard0DataSource.getMaximumPoolSize());
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards, properties.strategy(), properties.rangeSize());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return shardRoutingDataSource;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardingQueryCacheCustomizer() {
+        return properties -> properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+    }
+}
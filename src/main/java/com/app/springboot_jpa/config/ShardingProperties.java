@@ -0,0 +1,28 @@
+package com.app.springboot_jpa.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuración del particionamiento de persons entre varias bases de datos
+ * (prefijo app.sharding).
+ * 
+ * enabled: activa el particionamiento; si es false se usa solo
+ * spring.datasource.
+ * strategy: RANGE (por rangos consecutivos de range-size ids) o HASH.
+ * rangeSize: cantidad de ids por shard con RANGE.
+ * shards: url, usuario y contraseña de los shards 1..N-1; el shard 0 es
+ * spring.datasource.
+ */
+@ConfigurationProperties("app.sharding")
+public record ShardingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("RANGE") ShardRoutingDataSource.Strategy strategy,
+        @DefaultValue("1000000") long rangeSize,
+        List<Shard> shards) {
+
+    public record Shard(String url, String username, String password) {
+    }
+}
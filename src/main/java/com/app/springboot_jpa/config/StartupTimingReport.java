@@ -0,0 +1,101 @@
+package com.app.springboot_jpa.config;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imprime cuánto tardó cada fase del arranque (app.startup.report=true, activo
+ * en el perfil fast-start), justo antes de ejecutar el CommandLineRunner.
+ * 
+ * Los pasos los registra Spring en el BufferingApplicationStartup que
+ * configura SpringbootJpaApplication.main. Los tiempos de cada fase son
+ * inclusivos: refresh del contexto incluye la creación de los beans y las
+ * tareas de inicio de la aplicación, y la creación de un bean la de sus
+ * dependencias.
+ * 
+ * Las tareas de inicio (listeners de ContextRefreshedEvent) registran sus
+ * propios pasos app.*. Las que no se ejecutaron no aparecen: las de migración
+ * solo corren con app.schema.check=record, y estadísticas y cardinalidad se
+ * calculan en la primera lectura con app.startup.warm-up=false.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.startup", name = "report", havingValue = "true")
+public class StartupTimingReport {
+
+    /*
+     * Pasos de Spring Boot, Spring Framework y Spring Data en el orden en que
+     * ocurren, seguidos de las tareas de inicio, que ocurren al final del
+     * refresh del contexto
+     */
+    private static final Map<String, String> PHASES = new LinkedHashMap<>();
+
+    static {
+        PHASES.put("spring.boot.application.starting", "inicio de SpringApplication");
+        PHASES.put("spring.boot.application.environment-prepared", "propiedades y perfiles");
+        PHASES.put("spring.boot.application.context-prepared", "preparación del contexto");
+        PHASES.put("spring.boot.application.context-loaded", "carga de definiciones");
+        PHASES.put("spring.context.beans.post-process", "post-procesamiento de definiciones");
+        PHASES.put("spring.data.repository.scanning", "búsqueda de repositorios");
+        PHASES.put("spring.data.repository.init", "inicialización de repositorios");
+        PHASES.put("spring.context.refresh", "refresh del contexto (creación de beans)");
+        PHASES.put("app.schema.check", "  checksum del esquema");
+        PHASES.put("app.persons.sequence-sync", "  sincronización de persons_seq");
+        PHASES.put("app.persons.backfill", "  columnas derivadas de persons");
+        PHASES.put("app.persons.search-index", "  índice de trigramas");
+        PHASES.put("app.persons.statistics", "  estadísticas de persons");
+        PHASES.put("app.persons.cardinality", "  sketches de cardinalidad");
+    }
+
+    private static final int SLOWEST_BEANS = 10;
+
+    @EventListener
+    public void onStarted(ApplicationStartedEvent event) {
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return;
+        }
+        List<TimelineEvent> events = startup.getBufferedTimeline().getEvents();
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long springStart = startup.getBufferedTimeline().getStartTime().toEpochMilli();
+
+        System.out.println("========== tiempos de arranque ==========");
+        System.out.println(String.format("%-45s %8d ms", "JVM hasta SpringApplication", springStart - jvmStart));
+        PHASES.forEach((step, description) -> {
+            List<TimelineEvent> matching = events.stream().filter(e -> e.getStartupStep().getName().equals(step))
+                    .toList();
+            if (!matching.isEmpty()) {
+                long millis = matching.stream().map(TimelineEvent::getDuration).mapToLong(Duration::toMillis).sum();
+                String label = matching.size() > 1 ? description + " (" + matching.size() + ")" : description;
+                System.out.println(String.format("%-45s %8d ms", label, millis));
+            }
+        });
+
+        System.out.println("========== beans más lentos ==========");
+        events.stream().filter(e -> e.getStartupStep().getName().equals("spring.beans.instantiate"))
+                .sorted(Comparator.comparing(TimelineEvent::getDuration).reversed()).limit(SLOWEST_BEANS)
+                .forEach(e -> System.out.println(String.format("%-45s %8d ms", beanName(e.getStartupStep()),
+                        e.getDuration().toMillis())));
+        System.out.println(String.format("%-45s %8d ms", "Total desde el inicio de la JVM",
+                ManagementFactory.getRuntimeMXBean().getUptime()));
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (tag.getKey().equals("beanName")) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+}
@@ -0,0 +1,21 @@
+package com.app.springboot_jpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import com.app.springboot_jpa.entities.StringCanonicalizer;
+
+/**
+ * Activa la deduplicación de name y lastname al leer personas
+ * (app.interning.enabled) con la capacidad app.interning.capacity. Hibernate
+ * crea InterningVarcharJdbcType por su cuenta, por eso la configuración se
+ * publica en StringCanonicalizer y no se inyecta.
+ */
+@Configuration
+public class StringInterningConfig {
+
+    public StringInterningConfig(@Value("${app.interning.enabled:false}") boolean enabled,
+            @Value("${app.interning.capacity:65536}") int capacity) {
+        StringCanonicalizer.configure(enabled, capacity);
+    }
+}
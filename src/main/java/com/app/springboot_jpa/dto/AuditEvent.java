@@ -0,0 +1,33 @@
+package com.app.springboot_jpa.dto;
+
+/**
+ * Evento de auditoría liviano que los callbacks del ciclo de vida encolan sin
+ * tocar la base de datos: qué entidad, cuál id, qué operación y cuándo (epoch
+ * en milisegundos).
+ * 
+ * Un evento puede cubrir un rango de ids consecutivos, entityId a
+ * lastEntityId, con la misma operación: así una transacción que inserta miles
+ * de personas con ids seguidos ocupa una sola posición del buffer.
+ * AuditLogWriter escribe una fila de audit_log por cada id del rango.
+ */
+public record AuditEvent(String entity, Long entityId, Action action, long occurredAt, Long lastEntityId) {
+
+    public enum Action {
+        CREATE, UPDATE, DELETE
+    }
+
+    public AuditEvent(String entity, Long entityId, Action action, long occurredAt) {
+        this(entity, entityId, action, occurredAt, entityId);
+    }
+
+    /**
+     * El mismo evento extendido hasta el id siguiente, o null si id no es el
+     * siguiente del rango.
+     */
+    public AuditEvent extendTo(Long id) {
+        if (entityId == null || id == null || id != lastEntityId + 1) {
+            return null;
+        }
+        return new AuditEvent(entity, entityId, action, occurredAt, id);
+    }
+}
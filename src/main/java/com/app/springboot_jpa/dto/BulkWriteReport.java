@@ -0,0 +1,26 @@
+package com.app.springboot_jpa.dto;
+
+import java.time.Duration;
+
+/**
+ * Resultado de una escritura masiva: cuántas filas se escribieron y cuánto
+ * tiempo tomó, para poder comparar el rendimiento (filas por segundo) entre el
+ * modo masivo y el save uno por uno.
+ */
+public record BulkWriteReport(String mode, long rows, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : rows * 1_000_000_000d / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                " mode='" + mode + "'" +
+                ", rows='" + rows + "'" +
+                ", elapsedMs='" + elapsed.toMillis() + "'" +
+                ", rowsPerSecond='" + String.format("%.1f", rowsPerSecond()) + "'" +
+                "}";
+    }
+}
@@ -0,0 +1,24 @@
+package com.app.springboot_jpa.dto;
+
+/**
+ * Aciertos, fallos y escrituras de una región del cache de segundo nivel.
+ */
+public record CacheRegionStats(String region, long hits, long misses, long puts, long elementsInMemory) {
+
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                " region='" + region + "'" +
+                ", hits='" + hits + "'" +
+                ", misses='" + misses + "'" +
+                ", puts='" + puts + "'" +
+                ", elementsInMemory='" + elementsInMemory + "'" +
+                ", hitRatio='" + String.format("%.3f", hitRatio()) + "'" +
+                "}";
+    }
+}
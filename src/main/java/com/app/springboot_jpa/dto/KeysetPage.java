@@ -0,0 +1,15 @@
+package com.app.springboot_jpa.dto;
+
+import java.util.List;
+
+/**
+ * Una página de resultados de la paginación keyset. nextToken es opaco para
+ * quien consume la página: se devuelve tal cual para pedir la siguiente y es
+ * null cuando ya no hay más resultados.
+ */
+public record KeysetPage<T>(List<T> content, String nextToken) {
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.app.springboot_jpa.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una búsqueda por muchos ids: las filas encontradas en el mismo
+ * orden en que se pidieron los ids y los ids que no existen.
+ */
+public record MultiGetResult<T>(List<T> found, List<Long> missing) {
+}
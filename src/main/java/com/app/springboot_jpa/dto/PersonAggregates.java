@@ -0,0 +1,13 @@
+package com.app.springboot_jpa.dto;
+
+/**
+ * Resumen de funciones de agregación sobre la tabla persons: id mínimo, id
+ * máximo, suma de los ids, largo promedio del nombre y total de personas.
+ */
+public record PersonAggregates(Long minId, Long maxId, Long sumId, Double avgNameLength, Long count) {
+
+    @Override
+    public String toString() {
+        return "min=" + minId + ", max=" + maxId + ", sum=" + sumId + ", avg=" + avgNameLength + ", count=" + count;
+    }
+}
@@ -0,0 +1,13 @@
+package com.app.springboot_jpa.dto;
+
+/**
+ * Proyección con las columnas de una persona sin el Audit, para las consultas
+ * de solo lectura que antes devolvían Object[].
+ */
+public record PersonData(Long id, String name, String lastname, String programingLanguage) {
+
+    @Override
+    public String toString() {
+        return "id=" + id + ", nombre=" + name + ", apellido=" + lastname + ", lenguaje=" + programingLanguage;
+    }
+}
@@ -1,31 +1,25 @@
 package com.app.springboot_jpa.dto;
 
-public class PersonDto {
-
-    private String name;
-    private String lastname;
-
-    public PersonDto(String name, String lastname) {
-        this.name = name;
-        this.lastname = lastname;
-    }
+/**
+ * Los records son clases inmutables cuyo constructor, accesores, equals,
+ * hashCode y toString genera el compilador. Como proyección de una consulta
+ * (select new ...) solo se leen las columnas necesarias y el resultado no es
+ * una entidad, así que Hibernate no lo registra en el contexto de persistencia
+ * ni guarda un snapshot para el dirty checking.
+ * 
+ * Se conservan getName y getLastname para no romper a quienes usaban la clase
+ * anterior.
+ */
+public record PersonDto(String name, String lastname) {
 
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     public String getLastname() {
         return lastname;
     }
 
-    public void setLastname(String lastname) {
-        this.lastname = lastname;
-    }
-
     @Override
     public String toString() {
         return "{" +
@@ -0,0 +1,7 @@
+package com.app.springboot_jpa.dto;
+
+/**
+ * Proyección de un nombre y su cantidad de caracteres.
+ */
+public record PersonNameLength(String name, Integer length) {
+}
@@ -0,0 +1,10 @@
+package com.app.springboot_jpa.dto;
+
+/**
+ * Todas las agregaciones de la tabla persons calculadas en un solo recorrido:
+ * total de filas, id mínimo, máximo y su suma, y el largo mínimo, máximo y la
+ * suma de los largos del nombre junto con cuántos nombres no son null.
+ */
+public record PersonTotals(Long count, Long minId, Long maxId, Long sumId, Long nameCount, Integer minNameLength,
+        Integer maxNameLength, Long sumNameLength) {
+}
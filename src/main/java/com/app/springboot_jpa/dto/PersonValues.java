@@ -0,0 +1,7 @@
+package com.app.springboot_jpa.dto;
+
+/**
+ * Proyección del nombre y el lenguaje de programación de una persona.
+ */
+public record PersonValues(String name, String programingLanguage) {
+}
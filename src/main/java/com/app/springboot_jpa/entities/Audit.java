@@ -84,9 +84,13 @@ public class Audit {
      * o para realizar validaciones antes de que la entidad se inserte en la base de
      * datos.
      */
+    /*
+     * Los callbacks solo asignan las fechas; el registro de la operación lo
+     * encola AuditTrailListener y se escribe en segundo plano, así ninguna
+     * escritura espera por la salida estándar.
+     */
     @PrePersist
     public void prePersist() {
-        System.out.println("Evento del ciclo de vida del entity pre-persist");
         this.createAt = LocalDateTime.now();
     }
 
@@ -99,7 +103,6 @@ public class Audit {
      */
     @PreUpdate
     public void preUpdate() {
-        System.out.println("Evento del ciclo de vida del objeto entity pre-update");
         this.updatedAt = LocalDateTime.now();
     }
 
@@ -0,0 +1,70 @@
+package com.app.springboot_jpa.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Registro de auditoría de las operaciones sobre las entidades. Las filas las
+ * escribe AuditLogWriter por lotes con JDBC, la entidad existe para que
+ * Hibernate cree la tabla y para poder consultarla con JPA.
+ * 
+ * A diferencia de Person aquí IDENTITY no impide el batching, porque los
+ * INSERT no pasan por Hibernate.
+ */
+@Entity
+@Table(name = "audit_log")
+public class AuditLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 100)
+    private String entity;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(length = 10)
+    private String action;
+
+    @Column(name = "occurred_at")
+    private LocalDateTime occurredAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                " id='" + getId() + "'" +
+                ", entity='" + getEntity() + "'" +
+                ", entityId='" + getEntityId() + "'" +
+                ", action='" + getAction() + "'" +
+                ", occurredAt='" + getOccurredAt() + "'" +
+                "}";
+    }
+}
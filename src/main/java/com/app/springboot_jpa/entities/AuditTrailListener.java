@@ -0,0 +1,36 @@
+package com.app.springboot_jpa.entities;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.app.springboot_jpa.dto.AuditEvent;
+import com.app.springboot_jpa.services.AuditTrail;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener del ciclo de vida que registra cada alta, cambio y baja de Person en
+ * la auditoría. Solo encola el evento en memoria después del commit, la
+ * escritura la hace AuditLogWriter fuera de la transacción.
+ */
+public class AuditTrailListener {
+
+    @Autowired
+    private AuditTrail auditTrail;
+
+    @PostPersist
+    public void postPersist(Person person) {
+        auditTrail.record(Person.class.getSimpleName(), person.getId(), AuditEvent.Action.CREATE);
+    }
+
+    @PostUpdate
+    public void postUpdate(Person person) {
+        auditTrail.record(Person.class.getSimpleName(), person.getId(), AuditEvent.Action.UPDATE);
+    }
+
+    @PostRemove
+    public void postRemove(Person person) {
+        auditTrail.record(Person.class.getSimpleName(), person.getId(), AuditEvent.Action.DELETE);
+    }
+}
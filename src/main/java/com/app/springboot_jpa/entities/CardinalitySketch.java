@@ -0,0 +1,64 @@
+package com.app.springboot_jpa.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * Registros de un sketch HyperLogLog de PersonCardinality guardados en la base
+ * de datos, para no tener que recorrer la tabla persons en cada arranque.
+ */
+@Entity
+@Table(name = "cardinality_sketches")
+public class CardinalitySketch {
+
+    /*
+     * Atributo de Person: name, lastname o programing_language
+     */
+    @Id
+    @Column(length = 50)
+    private String attribute;
+
+    /*
+     * PersonCardinality lee y escribe los registros con JdbcTemplate; la
+     * entidad solo define la tabla
+     */
+    @Lob
+    @Column(nullable = false)
+    private byte[] registers;
+
+    /*
+     * Versión de las claves con que se calcularon los hashes
+     * (PersonCardinality.KEY_VERSION); la fila solo se escribe después de
+     * construir el sketch, así que también indica que ya se construyó
+     */
+    @Column(name = "key_version")
+    private Integer keyVersion;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public CardinalitySketch() {
+
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public byte[] getRegisters() {
+        return registers;
+    }
+
+    public Integer getKeyVersion() {
+        return keyVersion;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
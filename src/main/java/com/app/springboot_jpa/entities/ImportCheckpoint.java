@@ -0,0 +1,110 @@
+package com.app.springboot_jpa.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Avance de una importación masiva: hasta qué byte del archivo se confirmaron
+ * las personas importadas. Se guarda en la misma transacción que cada lote,
+ * así después de una falla la importación continúa exactamente desde el último
+ * lote confirmado, sin duplicar ni perder filas.
+ * 
+ * fileSize y fileModified identifican la versión del archivo: si en la misma
+ * ruta hay otro archivo (más corto, más largo o regenerado) el avance guardado
+ * no le corresponde y la importación empieza de cero.
+ */
+@Entity
+@Table(name = "import_checkpoints")
+public class ImportCheckpoint {
+
+    /*
+     * Ruta absoluta del archivo importado
+     */
+    @Id
+    @Column(length = 500)
+    private String file;
+
+    @Column(name = "byte_offset")
+    private long byteOffset;
+
+    @Column(name = "imported_rows")
+    private long importedRows;
+
+    @Column(name = "file_size")
+    private long fileSize;
+
+    /*
+     * Fecha de modificación del archivo en milisegundos desde epoch
+     */
+    @Column(name = "file_modified")
+    private long fileModified;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public ImportCheckpoint() {
+
+    }
+
+    public ImportCheckpoint(String file) {
+        this.file = file;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public long getByteOffset() {
+        return byteOffset;
+    }
+
+    public void setByteOffset(long byteOffset) {
+        this.byteOffset = byteOffset;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public void setImportedRows(long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public long getFileModified() {
+        return fileModified;
+    }
+
+    /**
+     * Indica si el avance guardado corresponde al archivo con ese tamaño y
+     * fecha de modificación.
+     */
+    public boolean matches(long size, long modified) {
+        return fileSize == size && fileModified == modified;
+    }
+
+    /**
+     * Descarta el avance y lo asocia a otra versión del archivo.
+     */
+    public void restart(long size, long modified) {
+        this.byteOffset = 0;
+        this.importedRows = 0;
+        this.fileSize = size;
+        this.fileModified = modified;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.app.springboot_jpa.entities;
+
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.hibernate.type.descriptor.ValueExtractor;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.JavaType;
+import org.hibernate.type.descriptor.jdbc.BasicExtractor;
+import org.hibernate.type.descriptor.jdbc.VarcharJdbcType;
+
+/**
+ * VARCHAR que pasa cada valor leído por StringCanonicalizer.
+ * 
+ * Se aplica con @JdbcType sobre el atributo, así solo cambia cómo Hibernate
+ * extrae el valor del ResultSet: el atributo sigue siendo un String normal,
+ * las consultas (like, length, concat, upper...) y la escritura no cambian, y
+ * la deduplicación alcanza tanto a las entidades como a las proyecciones que
+ * seleccionan el atributo (PersonDto, PersonData...).
+ */
+public class InterningVarcharJdbcType extends VarcharJdbcType {
+
+    @Override
+    public <X> ValueExtractor<X> getExtractor(JavaType<X> javaType) {
+        return new BasicExtractor<>(javaType, this) {
+            @Override
+            protected X doExtract(ResultSet rs, int paramIndex, WrapperOptions options) throws SQLException {
+                return javaType.wrap(StringCanonicalizer.canonicalize(rs.getString(paramIndex)), options);
+            }
+
+            @Override
+            protected X doExtract(CallableStatement statement, int index, WrapperOptions options)
+                    throws SQLException {
+                return javaType.wrap(StringCanonicalizer.canonicalize(statement.getString(index)), options);
+            }
+
+            @Override
+            protected X doExtract(CallableStatement statement, String name, WrapperOptions options)
+                    throws SQLException {
+                return javaType.wrap(StringCanonicalizer.canonicalize(statement.getString(name)), options);
+            }
+        };
+    }
+}
@@ -1,12 +1,26 @@
 package com.app.springboot_jpa.entities;
 
+import java.util.Locale;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcType;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 /**
  * La anotación @Entity de Jakarta (anteriormente conocida como
@@ -44,13 +58,50 @@ import jakarta.persistence.Table;
  * la mantenibilidad del desarrollo de software.
  */
 @Entity
+/*
+ * @Cacheable y @Cache guardan las instancias de Person en el cache de segundo
+ * nivel (región com.app.springboot_jpa.entities.Person en ehcache.xml).
+ * READ_WRITE mantiene el cache consistente con las transacciones: al hacer save
+ * o delete Hibernate bloquea e invalida la entrada correspondiente.
+ */
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 /*
  * La anotación @Table es opcional, si no se agrega la clase va a estar mapeada
  * a la tabla en la BDD que tenga el mismo nombre que la clase
  */
-@Table(name = "persons")
+/*
+ * Los índices compuestos respaldan los ordenamientos usados por la paginación
+ * keyset (name, lastname, id), tanto ascendente como con name descendente
+ * (MariaDB respeta DESC en índices desde la 10.8), así la búsqueda de la
+ * siguiente página es un seek sobre el índice y no un recorrido con OFFSET.
+ * idx_persons_language_name respalda los filtros por lenguaje (y nombre), que
+ * con el diccionario son comparaciones de enteros. idx_persons_name_length
+ * cubre las consultas por largo del nombre: min/max se resuelven leyendo un
+ * extremo del índice y la lista de nombres con su largo sin leer la tabla.
+ */
+/*
+ * PersonShardListener rechaza con app.sharding.enabled las escrituras de
+ * personas de otro shard, ProgrammingLanguageListener registra los lenguajes
+ * nuevos en el diccionario, PersonSearchListener mantiene el índice de trigramas usado por las búsquedas
+ * por subcadena de name y lastname (ver PersonTrigram),
+ * PersonStatisticsListener las estadísticas en memoria de PersonStatistics,
+ * PersonCardinalityListener los sketches de PersonCardinality y
+ * AuditTrailListener encola los eventos de auditoría.
+ */
+@EntityListeners({ PersonShardListener.class, ProgrammingLanguageListener.class, PersonSearchListener.class,
+        PersonStatisticsListener.class, PersonCardinalityListener.class, AuditTrailListener.class })
+@Table(name = "persons", indexes = {
+        @Index(name = "idx_persons_name_lastname_id", columnList = "name, lastname, id"),
+        @Index(name = "idx_persons_name_desc_lastname_id", columnList = "name desc, lastname, id"),
+        @Index(name = "idx_persons_language_name", columnList = "programing_language_id, name"),
+        @Index(name = "idx_persons_name_length", columnList = "name_length, name"),
+        @Index(name = "idx_persons_full_name_key", columnList = "full_name_key") })
 public class Person {
 
+    public static final String ID_SEQUENCE = "persons_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     /*
      * @GeneratedValue
      * La anotación @GeneratedValue se usa en JPA para especificar cómo debe ser
@@ -112,15 +163,44 @@ public class Person {
      * estrategia exacta.
      * Desventaja: Puede no ser óptima si tienes requisitos específicos sobre cómo
      * deben ser generados los valores de las claves primarias.
+     * 
+     * Con IDENTITY Hibernate necesita ejecutar cada INSERT de inmediato para
+     * conocer el id generado, por lo que desactiva el batching de JDBC y cada
+     * save es un viaje a la base de datos. Con SEQUENCE y el optimizador pooled
+     * (allocationSize > 1) Hibernate reserva bloques de 50 ids con una sola
+     * llamada a la secuencia y puede agrupar los INSERT en lotes
+     * (hibernate.jdbc.batch_size). MariaDB soporta secuencias desde la 10.3.
+     * 
+     * initialValue = 6 porque import.sql inserta explícitamente los ids 1..5.
+     * En una base que ya tenía ids asignados con IDENTITY, ddl-auto=update crea
+     * la secuencia desde 6; PersonSequenceSync la adelanta por encima del id
+     * máximo al iniciar.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, initialValue = 6, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
+    /*
+     * @JdbcType cambia cómo Hibernate lee la columna: con
+     * app.interning.enabled=true los nombres y apellidos repetidos comparten una
+     * sola instancia de String (ver InterningVarcharJdbcType). El lenguaje ya lo
+     * deduplica el diccionario.
+     */
+    @JdbcType(InterningVarcharJdbcType.class)
     private String name;
+
+    @JdbcType(InterningVarcharJdbcType.class)
     private String lastname;
 
-    @Column(name = "programing_language")
+    /*
+     * @Convert aplica un AttributeConverter a un atributo básico. En la tabla
+     * solo se guarda el id del lenguaje en el diccionario programming_languages
+     * (un smallint en lugar de un varchar repetido en cada fila), pero en Java y
+     * en las consultas el atributo sigue siendo el nombre.
+     */
+    @Convert(converter = ProgrammingLanguageConverter.class)
+    @Column(name = "programing_language_id")
     private String programingLanguage;
 
     /*
@@ -133,6 +213,36 @@ public class Person {
     @Embedded
     private Audit audit = new Audit();
 
+    /*
+     * Largo del nombre guardado en su propia columna e indexado, así las
+     * consultas del nombre más corto o más largo son búsquedas en el índice en
+     * lugar de calcular length(name) en cada fila. Lo mantiene
+     * updateDerivedColumns antes de cada insert o update.
+     */
+    @Column(name = "name_length")
+    private Integer nameLength;
+
+    /*
+     * Nombre completo ("name lastname") y su versión en minúsculas, también
+     * mantenidos por updateDerivedColumns. Las consultas de nombre completo los
+     * leen directamente en lugar de concatenar en cada fila, y
+     * full_name_key tiene índice para buscar sin distinguir mayúsculas, por
+     * igualdad o por prefijo.
+     */
+    @Column(name = "full_name", length = 511)
+    private String fullName;
+
+    @Column(name = "full_name_key", length = 511)
+    private String fullNameKey;
+
+    /*
+     * @Transient indica que el atributo no se guarda en la tabla. Conserva el
+     * largo del nombre tal como está en la base de datos para que
+     * PersonStatisticsListener pueda descontarlo cuando el nombre cambie.
+     */
+    @Transient
+    private Integer persistedNameLength;
+
     /**
      * Si tenemos un constructor personalizado donde pasaremos parámetros, estamos
      * obligados siempre a tener un constructor vacío, ya que eso lo maneja JPA, es
@@ -156,6 +266,27 @@ public class Person {
         this.programingLanguage = programingLanguage;
     }
 
+    /*
+     * Los callbacks también se pueden declarar en la entidad misma. Se cuentan
+     * code points igual que length() de MariaDB (char_length). Es público para
+     * ShardedPersonRepository, que inserta con JDBC sin pasar por Hibernate.
+     */
+    @PrePersist
+    @PreUpdate
+    public void updateDerivedColumns() {
+        nameLength = name == null ? null : name.codePointCount(0, name.length());
+        fullName = name == null || lastname == null ? null : name + " " + lastname;
+        fullNameKey = fullNameKey(fullName);
+    }
+
+    /**
+     * Clave de búsqueda del nombre completo: el texto en minúsculas,
+     * independiente del idioma de la JVM.
+     */
+    public static String fullNameKey(String fullName) {
+        return fullName == null ? null : fullName.toLowerCase(Locale.ROOT);
+    }
+
     public Long getId() {
         return id;
     }
@@ -188,6 +319,26 @@ public class Person {
         this.programingLanguage = programingLanguage;
     }
 
+    public Integer getNameLength() {
+        return nameLength;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getFullNameKey() {
+        return fullNameKey;
+    }
+
+    Integer getPersistedNameLength() {
+        return persistedNameLength;
+    }
+
+    void setPersistedNameLength(Integer persistedNameLength) {
+        this.persistedNameLength = persistedNameLength;
+    }
+
     @Override
     public String toString() {
         return "{" +
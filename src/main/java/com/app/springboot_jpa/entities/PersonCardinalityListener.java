@@ -0,0 +1,27 @@
+package com.app.springboot_jpa.entities;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.app.springboot_jpa.services.PersonCardinality;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener del ciclo de vida de Person que agrega los valores de cada persona
+ * insertada o modificada a los sketches de PersonCardinality. Igual que en
+ * PersonStatisticsListener, el servicio se obtiene con ObjectProvider porque
+ * depende del repositorio.
+ */
+public class PersonCardinalityListener {
+
+    @Autowired
+    private ObjectProvider<PersonCardinality> cardinality;
+
+    @PostPersist
+    @PostUpdate
+    public void postWrite(Person person) {
+        cardinality.getObject().record(person.getName(), person.getLastname(), person.getProgramingLanguage());
+    }
+}
@@ -0,0 +1,40 @@
+package com.app.springboot_jpa.entities;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.app.springboot_jpa.services.PersonSearchIndex;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener del ciclo de vida de Person que mantiene el índice de trigramas.
+ * 
+ * @EntityListeners permite declarar los callbacks en una clase aparte de la
+ * entidad. Spring Boot configura Hibernate para crear los listeners como beans,
+ * por eso se puede usar @Autowired.
+ * 
+ * Los cambios se acumulan por transacción y PersonSearchIndex los escribe en
+ * lotes.
+ */
+public class PersonSearchListener {
+
+    @Autowired
+    private PersonSearchIndex searchIndex;
+
+    @PostPersist
+    public void postPersist(Person person) {
+        searchIndex.indexOnCommit(person);
+    }
+
+    @PostUpdate
+    public void postUpdate(Person person) {
+        searchIndex.reindexOnCommit(person);
+    }
+
+    @PostRemove
+    public void postRemove(Person person) {
+        searchIndex.removeOnCommit(person.getId());
+    }
+}
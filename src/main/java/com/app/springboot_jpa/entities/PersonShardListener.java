@@ -0,0 +1,47 @@
+package com.app.springboot_jpa.entities;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.app.springboot_jpa.config.ShardRoutingDataSource;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Listener del ciclo de vida de Person que, con app.sharding.enabled, rechaza
+ * las escrituras de personas que pertenecen a otro shard que el de la
+ * transacción (ShardRoutingDataSource.checkShardOf). Sin sharding no hay
+ * ShardRoutingDataSource y no hace nada.
+ *
+ * La inserción se revisa en @PostPersist porque en @PrePersist el id de la
+ * secuencia todavía no está asignado; la excepción deshace la transacción.
+ */
+public class PersonShardListener {
+
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shards;
+
+    @PostPersist
+    public void postPersist(Person person) {
+        check(person);
+    }
+
+    @PreUpdate
+    public void preUpdate(Person person) {
+        check(person);
+    }
+
+    @PreRemove
+    public void preRemove(Person person) {
+        check(person);
+    }
+
+    private void check(Person person) {
+        ShardRoutingDataSource routing = shards.getIfAvailable();
+        if (routing != null) {
+            routing.checkShardOf(person.getId());
+        }
+    }
+}
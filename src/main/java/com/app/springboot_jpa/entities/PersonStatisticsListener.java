@@ -0,0 +1,60 @@
+package com.app.springboot_jpa.entities;
+
+import java.util.Objects;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.app.springboot_jpa.services.PersonStatistics;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener del ciclo de vida de Person que informa a PersonStatistics de cada
+ * inserción, actualización y eliminación.
+ * 
+ * Para actualizar la suma y los extremos del largo del nombre hace falta el
+ * largo anterior, por eso @PostLoad lo guarda en un atributo @Transient de la
+ * entidad. PersonStatistics se obtiene con ObjectProvider porque depende del
+ * repositorio, que a su vez necesita el EntityManagerFactory que crea este
+ * listener.
+ */
+public class PersonStatisticsListener {
+
+    @Autowired
+    private ObjectProvider<PersonStatistics> statistics;
+
+    @PostLoad
+    public void postLoad(Person person) {
+        person.setPersistedNameLength(nameLength(person));
+    }
+
+    @PostPersist
+    public void postPersist(Person person) {
+        Integer nameLength = nameLength(person);
+        statistics.getObject().recordInsert(person.getId(), nameLength);
+        person.setPersistedNameLength(nameLength);
+    }
+
+    @PostUpdate
+    public void postUpdate(Person person) {
+        Integer nameLength = nameLength(person);
+        if (!Objects.equals(nameLength, person.getPersistedNameLength())) {
+            statistics.getObject().recordUpdate(person.getPersistedNameLength(), nameLength);
+            person.setPersistedNameLength(nameLength);
+        }
+    }
+
+    @PostRemove
+    public void postRemove(Person person) {
+        statistics.getObject().recordDelete(person.getId(), person.getPersistedNameLength());
+    }
+
+    private static Integer nameLength(Person person) {
+        String name = person.getName();
+        return name == null ? null : name.codePointCount(0, name.length());
+    }
+}
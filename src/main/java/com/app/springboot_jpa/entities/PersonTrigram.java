@@ -0,0 +1,66 @@
+package com.app.springboot_jpa.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Índice invertido de trigramas para buscar por subcadena en name y lastname.
+ * 
+ * Un like '%texto%' no puede usar un índice B-tree porque el comodín inicial
+ * obliga a revisar todas las filas. En cambio cada valor se descompone en sus
+ * trigramas (subcadenas de 3 caracteres, sin acentos y en minúsculas) y se
+ * guarda una fila por trigrama. Toda subcadena de 3 o más caracteres contiene
+ * solo trigramas del valor, así que los candidatos se obtienen buscando en la
+ * llave primaria (trigram, field, person_id) y luego se confirma con el like
+ * solo sobre ellos.
+ * 
+ * No se mapea una relación con Person para no crear una llave foránea: las
+ * filas se escriben desde PersonSearchListener, a veces antes de que Hibernate
+ * haya enviado el INSERT de la persona.
+ */
+@Entity
+@IdClass(PersonTrigramId.class)
+@Table(name = "person_trigrams", indexes = @Index(name = "idx_person_trigrams_person", columnList = "person_id"))
+public class PersonTrigram {
+
+    public static final String FIELD_NAME = "name";
+    public static final String FIELD_LASTNAME = "lastname";
+
+    @Id
+    @Column(length = 3)
+    private String trigram;
+
+    @Id
+    @Column(length = 10)
+    private String field;
+
+    @Id
+    @Column(name = "person_id")
+    private Long personId;
+
+    public PersonTrigram() {
+
+    }
+
+    public PersonTrigram(String trigram, String field, Long personId) {
+        this.trigram = trigram;
+        this.field = field;
+        this.personId = personId;
+    }
+
+    public String getTrigram() {
+        return trigram;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Long getPersonId() {
+        return personId;
+    }
+}
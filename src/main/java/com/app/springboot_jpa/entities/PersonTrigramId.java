@@ -0,0 +1,43 @@
+package com.app.springboot_jpa.entities;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Clave compuesta de PersonTrigram. Una clase usada con @IdClass debe tener los
+ * mismos atributos que forman el id de la entidad, un constructor vacío y
+ * sobrescribir equals y hashCode.
+ */
+public class PersonTrigramId implements Serializable {
+
+    private String trigram;
+    private String field;
+    private Long personId;
+
+    public PersonTrigramId() {
+
+    }
+
+    public PersonTrigramId(String trigram, String field, Long personId) {
+        this.trigram = trigram;
+        this.field = field;
+        this.personId = personId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersonTrigramId other)) {
+            return false;
+        }
+        return Objects.equals(trigram, other.trigram) && Objects.equals(field, other.field)
+                && Objects.equals(personId, other.personId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(trigram, field, personId);
+    }
+}
@@ -0,0 +1,52 @@
+package com.app.springboot_jpa.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Diccionario de lenguajes de programación. Cada persona guarda solo el id
+ * (smallint) en persons.programing_language_id y el nombre se resuelve en
+ * memoria con ProgrammingLanguageDictionary.
+ * 
+ * El id no es generado por la base de datos: lo asigna el diccionario al
+ * registrar un lenguaje nuevo, así funciona igual con los ids explícitos de
+ * import.sql en MariaDB y en H2.
+ */
+@Entity
+@Table(name = "programming_languages")
+public class ProgrammingLanguage {
+
+    @Id
+    private Short id;
+
+    // El mismo largo que tenía la columna persons.programing_language
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    public ProgrammingLanguage() {
+
+    }
+
+    public ProgrammingLanguage(Short id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Short getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                " id='" + getId() + "'" +
+                ", name='" + getName() + "'" +
+                "}";
+    }
+}
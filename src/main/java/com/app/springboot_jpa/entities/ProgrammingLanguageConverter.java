@@ -0,0 +1,42 @@
+package com.app.springboot_jpa.entities;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.app.springboot_jpa.services.ProgrammingLanguageDictionary;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Convierte Person.programingLanguage entre el nombre (String, en Java) y su
+ * id del diccionario (Short, en la tabla).
+ * 
+ * Hibernate también aplica el converter a los parámetros que se comparan o se
+ * asignan a p.programingLanguage en JPQL y en las consultas derivadas, así que
+ * findByProgramingLanguage("Java") termina comparando
+ * programing_language_id = 1. Por eso aquí no se registran lenguajes nuevos:
+ * un nombre desconocido se convierte en UNKNOWN_ID, que no coincide con
+ * ninguna fila; ProgrammingLanguageListener los registra antes de guardar la
+ * persona. Igual que los listeners, Spring Boot crea el converter como bean y
+ * se puede usar @Autowired.
+ */
+@Converter
+public class ProgrammingLanguageConverter implements AttributeConverter<String, Short> {
+
+    @Autowired
+    private ProgrammingLanguageDictionary dictionary;
+
+    @Override
+    public Short convertToDatabaseColumn(String name) {
+        if (name == null) {
+            return null;
+        }
+        Short id = dictionary.idOf(name);
+        return id != null ? id : ProgrammingLanguageDictionary.UNKNOWN_ID;
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short id) {
+        return id == null ? null : dictionary.nameOf(id);
+    }
+}
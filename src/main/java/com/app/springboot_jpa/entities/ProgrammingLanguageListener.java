@@ -0,0 +1,37 @@
+package com.app.springboot_jpa.entities;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.app.springboot_jpa.services.ProgrammingLanguageDictionary;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Listener del ciclo de vida de Person que registra en
+ * ProgrammingLanguageDictionary el lenguaje de cada persona que se guarda,
+ * antes de que ProgrammingLanguageConverter lo traduzca a su id. Es el único
+ * camino (junto con las operaciones masivas) por el que se agregan lenguajes:
+ * las consultas que comparan con un nombre desconocido no lo registran.
+ */
+public class ProgrammingLanguageListener {
+
+    @Autowired
+    private ProgrammingLanguageDictionary dictionary;
+
+    @PrePersist
+    public void prePersist(Person person) {
+        register(person);
+    }
+
+    @PreUpdate
+    public void preUpdate(Person person) {
+        register(person);
+    }
+
+    private void register(Person person) {
+        if (person.getProgramingLanguage() != null) {
+            dictionary.register(person.getProgramingLanguage());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.app.springboot_jpa.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Avance de una reconstrucción por bloques de una tabla derivada de persons
+ * (PersonSearchIndex.rebuild): hasta qué id de persons se confirmaron los
+ * bloques. Como ImportCheckpoint, se guarda en la misma transacción que cada
+ * bloque y se borra con el último, así una reconstrucción interrumpida
+ * continúa desde el último bloque confirmado.
+ */
+@Entity
+@Table(name = "rebuild_checkpoints")
+public class RebuildCheckpoint {
+
+    /*
+     * Tabla que se reconstruye
+     */
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(name = "last_id")
+    private Long lastId;
+
+    @Column(name = "processed_rows")
+    private long processedRows;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public RebuildCheckpoint() {
+
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public long getProcessedRows() {
+        return processedRows;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,44 @@
+package com.app.springboot_jpa.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Checksum del esquema que esperan las entidades, guardado por SchemaChecksum
+ * después de un arranque con ddl-auto=update. El perfil fast-start lo compara
+ * en lugar de inspeccionar todas las tablas de la base de datos.
+ */
+@Entity
+@Table(name = "schema_version")
+public class SchemaVersion {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(length = 64, nullable = false)
+    private String checksum;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public SchemaVersion() {
+
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
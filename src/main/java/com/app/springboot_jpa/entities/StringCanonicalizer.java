@@ -0,0 +1,63 @@
+package com.app.springboot_jpa.entities;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Mapa canonicalizador de Strings acotado, concurrente y con referencias
+ * débiles, para que los valores repetidos de name y lastname de muchas
+ * personas compartan una sola instancia.
+ * 
+ * Es una tabla de tamaño fijo (potencia de dos) donde cada String ocupa la
+ * casilla de su hashCode. Si la casilla tiene un String igual se devuelve ese;
+ * si no, el nuevo reemplaza al anterior. Así la memoria está acotada, no hay
+ * bloqueos (una carrera entre dos hilos solo provoca una deduplicación
+ * perdida) y, como las casillas son WeakReference, un String que ya no usa
+ * ninguna entidad lo puede recolectar el GC. A diferencia de String.intern()
+ * no llena la tabla de strings de la JVM con valores que se usan una vez.
+ * 
+ * Está desactivado por defecto (app.interning.enabled); lo configura
+ * StringInterningConfig al iniciar.
+ */
+public final class StringCanonicalizer {
+
+    private static volatile StringCanonicalizer instance;
+
+    private final AtomicReferenceArray<WeakReference<String>> slots;
+    private final int mask;
+
+    private StringCanonicalizer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Activa la deduplicación con la capacidad indicada (se redondea a la
+     * siguiente potencia de dos) o la desactiva con enabled = false.
+     */
+    public static void configure(boolean enabled, int capacity) {
+        instance = enabled ? new StringCanonicalizer(capacity) : null;
+    }
+
+    /**
+     * Devuelve la instancia canónica de value, o value mismo si la
+     * deduplicación está desactivada.
+     */
+    public static String canonicalize(String value) {
+        StringCanonicalizer current = instance;
+        return current == null || value == null ? value : current.get(value);
+    }
+
+    private String get(String value) {
+        int h = value.hashCode();
+        int slot = (h ^ (h >>> 16)) & mask;
+        WeakReference<String> ref = slots.get(slot);
+        String existing = ref == null ? null : ref.get();
+        if (value.equals(existing)) {
+            return existing;
+        }
+        slots.set(slot, new WeakReference<>(value));
+        return value;
+    }
+}
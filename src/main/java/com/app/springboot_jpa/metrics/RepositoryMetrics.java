@@ -0,0 +1,150 @@
+package com.app.springboot_jpa.metrics;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Métricas por método de repositorio registradas en Micrometer:
+ * 
+ * repository.invocations: latencia (Timer con p50, p99 y p99.9).
+ * repository.rows: filas devueltas por invocación.
+ * repository.statements: sentencias SQL ejecutadas por invocación.
+ * repository.entities.loaded: entidades cargadas por invocación.
+ * repository.errors: invocaciones que lanzaron una excepción.
+ * repository.flags: invocaciones sospechosas, con el tag reason:
+ * n-plus-one (se ejecutó más de una sentencia por fila devuelta) o
+ * statement-threshold (más sentencias que app.metrics.repository.statement-threshold).
+ * 
+ * Todas llevan los tags repository y method. dump() devuelve las mismas cifras
+ * como texto plano junto con los totales de las estadísticas de Hibernate.
+ */
+@Component
+public class RepositoryMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(RepositoryMetrics.class);
+
+    static final String N_PLUS_ONE = "n-plus-one";
+    static final String STATEMENT_THRESHOLD = "statement-threshold";
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.metrics.repository.statement-threshold:10}")
+    private long statementThreshold;
+
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    void record(String repository, String method, long nanos, long rows, long statements, long entities,
+            boolean failed) {
+        MethodMetrics metrics = methods.computeIfAbsent(repository + "." + method,
+                key -> new MethodMetrics(repository, method));
+        metrics.timer.record(nanos, TimeUnit.NANOSECONDS);
+        if (rows >= 0) {
+            metrics.rows.record(rows);
+        }
+        metrics.statements.record(statements);
+        metrics.entities.record(entities);
+        if (failed) {
+            metrics.errors.increment();
+        }
+        if (rows > 1 && statements > rows) {
+            flag(metrics, N_PLUS_ONE, statements, rows);
+        }
+        if (statements > statementThreshold) {
+            flag(metrics, STATEMENT_THRESHOLD, statements, rows);
+        }
+    }
+
+    private void flag(MethodMetrics metrics, String reason, long statements, long rows) {
+        registry.counter("repository.flags", "repository", metrics.repository, "method", metrics.method, "reason",
+                reason).increment();
+        if (metrics.flags.add(reason)) {
+            log.warn("{}.{} marcado como {}: {} sentencias para {} filas", metrics.repository, metrics.method, reason,
+                    statements, rows);
+        }
+    }
+
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-60s %8s %10s %10s %10s %10s %8s %8s %8s  %s%n", "method", "calls", "p50 ms",
+                "p99 ms", "p999 ms", "max ms", "rows", "stmts", "loaded", "flags"));
+        new TreeMap<>(methods).forEach((name, metrics) -> {
+            ValueAtPercentile[] percentiles = metrics.timer.takeSnapshot().percentileValues();
+            out.append(String.format("%-60s %8d %10.3f %10.3f %10.3f %10.3f %8.1f %8.1f %8.1f  %s%n", name,
+                    metrics.timer.count(), percentile(percentiles, 0.5), percentile(percentiles, 0.99),
+                    percentile(percentiles, 0.999), metrics.timer.max(TimeUnit.MILLISECONDS), metrics.rows.mean(),
+                    metrics.statements.mean(), metrics.entities.mean(), metrics.flags));
+        });
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (statistics.isStatisticsEnabled()) {
+            out.append(String.format(
+                    "hibernate: queries=%d, statements=%d, entitiesLoaded=%d, l2Hits=%d, l2Misses=%d, slowestQuery=%s (%d ms)%n",
+                    statistics.getQueryExecutionCount(), statistics.getPrepareStatementCount(),
+                    statistics.getEntityLoadCount(), statistics.getSecondLevelCacheHitCount(),
+                    statistics.getSecondLevelCacheMissCount(), statistics.getQueryExecutionMaxTimeQueryString(),
+                    statistics.getQueryExecutionMaxTime()));
+        }
+        return out.toString();
+    }
+
+    private static double percentile(ValueAtPercentile[] percentiles, double percentile) {
+        for (ValueAtPercentile value : percentiles) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private class MethodMetrics {
+        final String repository;
+        final String method;
+        final Timer timer;
+        final DistributionSummary rows;
+        final DistributionSummary statements;
+        final DistributionSummary entities;
+        final Counter errors;
+        final Set<String> flags = ConcurrentHashMap.newKeySet();
+
+        MethodMetrics(String repository, String method) {
+            this.repository = repository;
+            this.method = method;
+            this.timer = Timer.builder("repository.invocations")
+                    .tags("repository", repository, "method", method)
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.rows = summary("repository.rows");
+            this.statements = summary("repository.statements");
+            this.entities = summary("repository.entities.loaded");
+            this.errors = registry.counter("repository.errors", "repository", repository, "method", method);
+        }
+
+        private DistributionSummary summary(String name) {
+            return DistributionSummary.builder(name)
+                    .tags("repository", repository, "method", method)
+                    .register(registry);
+        }
+    }
+}
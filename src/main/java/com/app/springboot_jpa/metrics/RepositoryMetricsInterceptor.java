@@ -0,0 +1,89 @@
+package com.app.springboot_jpa.metrics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.BaseStream;
+import java.util.stream.Collectors;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+
+/**
+ * Advice que se agrega al proxy de cada repositorio de Spring Data. Mide la
+ * latencia de la invocación, cuenta las filas del resultado y toma la
+ * diferencia de los contadores de SqlCounter del hilo actual.
+ */
+class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private final String repository;
+    private final ObjectProvider<RepositoryMetrics> metrics;
+
+    RepositoryMetricsInterceptor(Class<?> repositoryInterface, ObjectProvider<RepositoryMetrics> metrics) {
+        this.repository = repositoryInterface.getSimpleName();
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (invocation.getMethod().getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        long statements = SqlCounter.statements();
+        long entities = SqlCounter.entities();
+        long start = System.nanoTime();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.getObject().record(repository, methodName(invocation), elapsed, rows(result),
+                    SqlCounter.statements() - statements, SqlCounter.entities() - entities, failed);
+        }
+    }
+
+    /*
+     * Los métodos sobrecargados (obtenerPersonValues) se distinguen por los
+     * tipos de sus parámetros.
+     */
+    private static String methodName(MethodInvocation invocation) {
+        Class<?>[] parameters = invocation.getMethod().getParameterTypes();
+        if (parameters.length == 0) {
+            return invocation.getMethod().getName();
+        }
+        return invocation.getMethod().getName() + "(" + Arrays.stream(parameters)
+                .map(Class::getSimpleName).collect(Collectors.joining(",")) + ")";
+    }
+
+    /*
+     * Filas del resultado, o -1 cuando no se pueden contar sin consumirlo
+     * (Stream).
+     */
+    private static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Window<?> window) {
+            return window.size();
+        }
+        if (result instanceof Iterable<?> || result instanceof BaseStream<?, ?>) {
+            return -1;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,43 @@
+package com.app.springboot_jpa.metrics;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+/**
+ * Cuenta, por hilo, las sentencias SQL que prepara Hibernate (StatementInspector)
+ * y las entidades que carga (Interceptor.onLoad).
+ * 
+ * Las estadísticas de Hibernate (Statistics) son globales de la
+ * SessionFactory, con varias peticiones en paralelo no se puede saber qué
+ * método generó cada sentencia. Como una invocación del repositorio se ejecuta
+ * en un solo hilo, la diferencia de estos contadores antes y después de la
+ * invocación es exactamente lo que hizo ese método.
+ */
+public class SqlCounter implements StatementInspector, Interceptor {
+
+    private static final ThreadLocal<long[]> COUNTERS = ThreadLocal.withInitial(() -> new long[2]);
+
+    private static final int STATEMENTS = 0;
+    private static final int ENTITIES = 1;
+
+    @Override
+    public String inspect(String sql) {
+        COUNTERS.get()[STATEMENTS]++;
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        COUNTERS.get()[ENTITIES]++;
+        return false;
+    }
+
+    static long statements() {
+        return COUNTERS.get()[STATEMENTS];
+    }
+
+    static long entities() {
+        return COUNTERS.get()[ENTITIES];
+    }
+}
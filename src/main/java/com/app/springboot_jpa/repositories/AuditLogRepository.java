@@ -0,0 +1,35 @@
+package com.app.springboot_jpa.repositories;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import com.app.springboot_jpa.entities.AuditLog;
+
+public interface AuditLogRepository extends CrudRepository<AuditLog, Long> {
+
+    /*
+     * insert ... select: una fila de audit_log por cada persona que cumple la
+     * condición, escrita por la base de datos en la transacción actual sin leer
+     * los ids. PersonBulkOperations las ejecuta antes del update o delete masivo
+     * con la misma condición, así solo se auditan las personas que existen y un
+     * rollback también descarta la auditoría.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("insert into AuditLog (entity, entityId, action, occurredAt)"
+            + " select 'Person', p.id, :action, local datetime from Person p where p.id in :ids")
+    int insertForPersonIds(@Param("ids") Collection<Long> ids, @Param("action") String action);
+
+    @Modifying(flushAutomatically = true)
+    @Query("insert into AuditLog (entity, entityId, action, occurredAt)"
+            + " select 'Person', p.id, :action, local datetime from Person p where p.id between :id1 and :id2")
+    int insertForPersonIdBetween(@Param("id1") Long id1, @Param("id2") Long id2, @Param("action") String action);
+
+    @Modifying(flushAutomatically = true)
+    @Query("insert into AuditLog (entity, entityId, action, occurredAt)"
+            + " select 'Person', p.id, :action, local datetime from Person p where p.programingLanguage = :language")
+    int insertForPersonProgramingLanguage(@Param("language") String language, @Param("action") String action);
+}
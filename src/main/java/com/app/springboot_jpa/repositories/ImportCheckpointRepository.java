@@ -0,0 +1,8 @@
+package com.app.springboot_jpa.repositories;
+
+import org.springframework.data.repository.CrudRepository;
+
+import com.app.springboot_jpa.entities.ImportCheckpoint;
+
+public interface ImportCheckpointRepository extends CrudRepository<ImportCheckpoint, String> {
+}
@@ -1,15 +1,30 @@
 package com.app.springboot_jpa.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import com.app.springboot_jpa.dto.PersonAggregates;
+import com.app.springboot_jpa.dto.PersonData;
 import com.app.springboot_jpa.dto.PersonDto;
+import com.app.springboot_jpa.dto.PersonNameLength;
+import com.app.springboot_jpa.dto.PersonTotals;
+import com.app.springboot_jpa.dto.PersonValues;
 import com.app.springboot_jpa.entities.Person;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * La clase CrudRepository es parte de Spring Data JPA y proporciona un conjunto
  * de métodos CRUD (Create, Read, Update, Delete) para la manipulación de
@@ -34,8 +49,25 @@ import com.app.springboot_jpa.entities.Person;
  * PersonRepository es una interfaz que extiende CrudRepository.
  * T es Person, la entidad con la que trabajará el repositorio.
  * ID es Long, el tipo de la clave primaria de la entidad Person.
+ * 
+ * JpaSpecificationExecutor agrega las consultas armadas en tiempo de ejecución
+ * con una Specification, como la paginación keyset de PersonPageService.
  */
-public interface PersonRepository extends CrudRepository<Person, Long> {
+public interface PersonRepository extends CrudRepository<Person, Long>, JpaSpecificationExecutor<Person> {
+
+    /*
+     * Cantidad de filas que el driver trae por cada viaje cuando se recorre un
+     * Stream. Con fetchSize > 0 el driver de MariaDB lee el resultado por partes
+     * en lugar de cargarlo completo en memoria.
+     */
+    String STREAM_FETCH_SIZE = "1000";
+
+    /*
+     * Región del cache de consultas (ver ehcache.xml) para las búsquedas puntuales
+     * marcadas como cacheables. Hibernate descarta sus resultados en cuanto se
+     * modifica la tabla persons.
+     */
+    String QUERY_CACHE_REGION = "person-queries";
 
     /*
      * Como buena práctica cuando trabajamos con CrudRepository y la API de Spring
@@ -47,16 +79,26 @@ public interface PersonRepository extends CrudRepository<Person, Long> {
      * Esta query es la misma del método findById de CrudRepository, pero es una
      * manera de hacerlo con una Query personalizada envolviendo el objeto en un
      * Optional
+     * 
+     * findById ya usa el cache de segundo nivel de la entidad; las consultas
+     * findOne, findOneByName, findByName y findByProgramingLanguage se marcan
+     * como cacheables para que las búsquedas repetidas no vayan a MariaDB.
      */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
     @Query("select p from Person p where p.id=?1")
     Optional<Person> findOne(Long id);
 
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
     @Query("select p from Person p where p.name=?1")
     Optional<Person> findOneByName(String name);
 
     @Query("select p from Person p where p.name like %:name%")
     Optional<Person> findOneLikeName(@Param("name") String name);
 
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
     Optional<Person> findByName(String name);
 
     Optional<Person> findByNameContaining(String name);
@@ -65,6 +107,8 @@ public interface PersonRepository extends CrudRepository<Person, Long> {
      * Consulta personalizada en base al nombre del atributo, siempre es importante
      * respetar el query method
      */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
     List<Person> findByProgramingLanguage(String programingLanguage);
 
     /*
@@ -100,28 +144,42 @@ public interface PersonRepository extends CrudRepository<Person, Long> {
 
     List<Person> findByProgramingLanguageAndName(String programingLanguage, String name);
 
-    @Query("select p.name, p.programingLanguage from Person p")
-    List<Object[]> obtenerPersonValues();
+    /*
+     * Las consultas de solo lectura devuelven records (paquete dto) en lugar de
+     * Object[]: el tipo de cada columna queda verificado por el compilador y, al
+     * no ser entidades, no ocupan lugar en el contexto de persistencia.
+     */
+    @Query("select new com.app.springboot_jpa.dto.PersonValues(p.name, p.programingLanguage) from Person p")
+    List<PersonValues> obtenerPersonValues();
 
-    @Query("select p, p.programingLanguage from Person p")
-    List<Object[]> findAllMixPerson();
+    /*
+     * Antes devolvía la entidad completa junto con su lenguaje; el lenguaje ya es
+     * parte de PersonData, así que basta con la proyección.
+     */
+    @Query("select new com.app.springboot_jpa.dto.PersonData(p.id, p.name, p.lastname, p.programingLanguage) from Person p")
+    List<PersonData> findAllMixPerson();
 
-    @Query("select p.id, p.name, p.lastname, p.programingLanguage from Person p")
-    List<Object[]> obtenerPersonDataList();
+    @Query("select new com.app.springboot_jpa.dto.PersonData(p.id, p.name, p.lastname, p.programingLanguage) from Person p")
+    List<PersonData> obtenerPersonDataList();
 
-    @Query("select p.id, p.name, p.lastname, p.programingLanguage from Person p where p.id = :id")
-    Object obtenerPersonDataById(@Param("id") Long id);
+    @Query("select new com.app.springboot_jpa.dto.PersonData(p.id, p.name, p.lastname, p.programingLanguage) from Person p where p.id = :id")
+    Optional<PersonData> obtenerPersonDataById(@Param("id") Long id);
 
-    @Query("select p.name, p.programingLanguage from Person p where p.programingLanguage=?1 and p.name=?2")
-    List<Object[]> obtenerPersonValues(String programingLanguage, String name);
+    @Query("select new com.app.springboot_jpa.dto.PersonValues(p.name, p.programingLanguage) from Person p where p.programingLanguage=?1 and p.name=?2")
+    List<PersonValues> obtenerPersonValues(String programingLanguage, String name);
 
-    @Query("select p.name, p.programingLanguage from Person p where p.name=?1")
-    List<Object[]> obtenerPersonValues(String name);
+    @Query("select new com.app.springboot_jpa.dto.PersonValues(p.name, p.programingLanguage) from Person p where p.name=?1")
+    List<PersonValues> obtenerPersonValues(String name);
 
     @Query("select p.name from Person p where p.id=?1")
     String getNameById(Long id);
 
-    @Query("select concat(p.name, ' ', p.lastname) as fullname from Person p where p.id=?1")
+    /*
+     * Las consultas de nombre completo leen las columnas full_name y
+     * full_name_key que mantiene Person, en lugar de concatenar name y lastname
+     * en cada fila.
+     */
+    @Query("select p.fullName from Person p where p.id=?1")
     String getFullNameById(Long id);
 
     @Query("select p.name from Person p")
@@ -130,19 +188,43 @@ public interface PersonRepository extends CrudRepository<Person, Long> {
     @Query("select distinct(p.name) from Person p")
     List<String> findAllNamesDistinct();
 
-    @Query("select count(distinct(p.name)) from Person p")
+    @Query("select count(distinct(p.programingLanguage)) from Person p")
     Long findAllProgrammingLanguageDistinctCount();
 
+    @Query("select count(distinct(p.name)) from Person p")
+    Long countDistinctNames();
+
+    @Query("select count(distinct(p.lastname)) from Person p")
+    Long countDistinctLastnames();
+
     // @Query("select concat(p.name, ' ', p.lastname) from Person p")
-    @Query("select p.name || ' ' || p.lastname from Person p")
+    // @Query("select p.name || ' ' || p.lastname from Person p")
+    @Query("select p.fullName from Person p")
     List<String> findAllFullNameConcat();
 
-    @Query("select upper(p.name || ' ' || p.lastname) from Person p")
+    @Query("select upper(p.fullName) from Person p")
     List<String> findAllFullNameConcatUpper();
 
-    @Query("select lower(concat(p.name, ' ', p.lastname)) from Person p")
+    @Query("select p.fullNameKey from Person p")
     List<String> findAllFullNameConcatLower();
 
+    List<Person> findByFullNameKey(String fullNameKey);
+
+    List<Person> findByFullNameKeyStartingWith(String fullNameKeyPrefix);
+
+    /*
+     * Búsqueda por nombre completo sin distinguir mayúsculas: el texto se pasa a
+     * minúsculas en Java, así la comparación con full_name_key es una búsqueda
+     * en su índice (por igualdad o por rango con like 'prefijo%').
+     */
+    default List<Person> findByFullNameIgnoreCase(String fullName) {
+        return findByFullNameKey(Person.fullNameKey(fullName));
+    }
+
+    default List<Person> findByFullNameStartingWithIgnoreCase(String prefix) {
+        return findByFullNameKeyStartingWith(Person.fullNameKey(prefix));
+    }
+
     @Query("select p from Person p where p.id between ?1 and ?2 order by p.name desc, p.lastname asc")
     List<Person> findAllBetweenId(Long id1, Long id2);
 
@@ -167,27 +249,153 @@ public interface PersonRepository extends CrudRepository<Person, Long> {
     @Query("select max(p.id) from Person p")
     Long getMaxId();
 
-    @Query("select p.name, length(p.name) from Person p")
-    public List<Object[]> getPersonNameLength();
+    /*
+     * Las consultas por largo del nombre usan la columna name_length (ver
+     * Person.nameLength) en lugar de length(p.name): con el índice
+     * (name_length, name) el mínimo y el máximo son un solo acceso al índice y
+     * las filas con ese largo una búsqueda por igualdad.
+     */
+    @Query("select new com.app.springboot_jpa.dto.PersonNameLength(p.name, p.nameLength) from Person p")
+    public List<PersonNameLength> getPersonNameLength();
 
-    @Query("select min(length(p.name)) from Person p")
+    @Query("select min(p.nameLength) from Person p")
     public Integer getMinLengthName();
 
-    @Query("select max(length(p.name)) from Person p")
+    @Query("select max(p.nameLength) from Person p")
     public Integer getMaxLengthName();
 
-    @Query("select p.name, length(p.name) from Person p where length(p.name) = (select min(length(p.name)) from Person p)")
-    List<Object[]> getMinLengthNameAndLength();
+    @Query("select new com.app.springboot_jpa.dto.PersonNameLength(p.name, p.nameLength) from Person p where p.nameLength = (select min(p2.nameLength) from Person p2)")
+    List<PersonNameLength> getMinLengthNameAndLength();
 
-    @Query("select min(p.id), max(p.id), sum(p.id), avg(length(p.name)), count(p.id) from Person p")
-    public Object getResumeAggregationFunction();
+    @Query("select new com.app.springboot_jpa.dto.PersonAggregates(min(p.id), max(p.id), sum(p.id), avg(p.nameLength), count(p.id)) from Person p")
+    public PersonAggregates getResumeAggregationFunction();
 
-    @Query("select p.name, length(p.name) from Person p where length(p.name) = (select max(length(p.name)) from Person p)")
-    public List<Object[]> getLongestName();
+    /*
+     * Todas las agregaciones que usa PersonStatistics en un solo recorrido de la
+     * tabla, en lugar de una consulta por cada función.
+     */
+    @Query("select new com.app.springboot_jpa.dto.PersonTotals(count(p), min(p.id), max(p.id), coalesce(sum(p.id), 0L),"
+            + " count(p.name), min(p.nameLength), max(p.nameLength), coalesce(sum(p.nameLength), 0L)) from Person p")
+    PersonTotals getTotals();
+
+    @Query("select new com.app.springboot_jpa.dto.PersonNameLength(p.name, p.nameLength) from Person p where p.nameLength = (select max(p2.nameLength) from Person p2)")
+    public List<PersonNameLength> getLongestName();
 
     @Query("select p from Person p where p.id=(select max(p.id) from Person p)")
     public Optional<Person> getLastRegistration();
 
     @Query("select p from Person p where p.id in :ids")
     public List<Person> getPersonsByIds(@Param("ids") List<Long> ids);
-}
\ No newline at end of file
+
+    /*
+     * Versiones con Stream de findAll, getAllOrderByName,
+     * findAllByOrderByNameDescLastnameDesc y obtenerPersonDataList. En lugar de
+     * cargar toda la tabla en una List, el resultado se recorre con un cursor
+     * de JDBC, por lo que deben consumirse dentro de una transacción y cerrarse
+     * (try-with-resources). Las entidades se cargan en modo solo lectura (sin
+     * snapshot para el dirty checking) y sin pasar por el cache de segundo nivel,
+     * para que un recorrido completo no desaloje las entradas calientes;
+     * PersonStreamService además las desasocia del contexto de persistencia
+     * conforme se consumen.
+     */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE") })
+    @Query("select p from Person p")
+    Stream<Person> streamAll();
+
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE") })
+    @Query("select p from Person p order by p.name")
+    Stream<Person> streamAllOrderByName();
+
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE") })
+    Stream<Person> streamAllByOrderByNameDescLastnameDesc();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select new com.app.springboot_jpa.dto.PersonData(p.id, p.name, p.lastname, p.programingLanguage) from Person p")
+    Stream<PersonData> streamPersonDataList();
+
+    /*
+     * Búsqueda por subcadena respaldada por el índice de trigramas
+     * (PersonTrigram). La subconsulta obtiene, con búsquedas sobre el índice,
+     * las personas que contienen todos los trigramas del texto buscado y el
+     * like solo confirma esos candidatos. Los resultados se ordenan por
+     * relevancia: coincidencia exacta, luego prefijo, luego subcadena.
+     * 
+     * Las versiones Prefix se usan cuando el texto tiene menos de 3 caracteres
+     * (no tiene trigramas); un like 'texto%' sí puede usar el índice de name.
+     * Los patrones llegan ya escapados con '!' desde PersonSearchService.
+     */
+    @Query(value = "select p from Person p where p.id in (select t.personId from PersonTrigram t"
+            + " where t.field = 'name' and t.trigram in :trigrams group by t.personId"
+            + " having count(t.trigram) = :trigramCount) and p.name like :pattern escape '!'"
+            + " order by case when p.name = :term then 0 when p.name like :prefix escape '!' then 1 else 2 end,"
+            + " p.name, p.id",
+            countQuery = "select count(p) from Person p where p.id in (select t.personId from PersonTrigram t"
+                    + " where t.field = 'name' and t.trigram in :trigrams group by t.personId"
+                    + " having count(t.trigram) = :trigramCount) and p.name like :pattern escape '!'")
+    Page<Person> searchByNameTrigrams(@Param("trigrams") Collection<String> trigrams,
+            @Param("trigramCount") long trigramCount, @Param("term") String term, @Param("prefix") String prefix,
+            @Param("pattern") String pattern, Pageable pageable);
+
+    @Query(value = "select p from Person p where p.id in (select t.personId from PersonTrigram t"
+            + " where t.field = 'lastname' and t.trigram in :trigrams group by t.personId"
+            + " having count(t.trigram) = :trigramCount) and p.lastname like :pattern escape '!'"
+            + " order by case when p.lastname = :term then 0 when p.lastname like :prefix escape '!' then 1 else 2 end,"
+            + " p.lastname, p.id",
+            countQuery = "select count(p) from Person p where p.id in (select t.personId from PersonTrigram t"
+                    + " where t.field = 'lastname' and t.trigram in :trigrams group by t.personId"
+                    + " having count(t.trigram) = :trigramCount) and p.lastname like :pattern escape '!'")
+    Page<Person> searchByLastnameTrigrams(@Param("trigrams") Collection<String> trigrams,
+            @Param("trigramCount") long trigramCount, @Param("term") String term, @Param("prefix") String prefix,
+            @Param("pattern") String pattern, Pageable pageable);
+
+    @Query(value = "select p from Person p where p.name like :prefix escape '!'"
+            + " order by case when p.name = :term then 0 else 1 end, p.name, p.id",
+            countQuery = "select count(p) from Person p where p.name like :prefix escape '!'")
+    Page<Person> searchByNamePrefix(@Param("term") String term, @Param("prefix") String prefix, Pageable pageable);
+
+    @Query(value = "select p from Person p where p.lastname like :prefix escape '!'"
+            + " order by case when p.lastname = :term then 0 else 1 end, p.lastname, p.id",
+            countQuery = "select count(p) from Person p where p.lastname like :prefix escape '!'")
+    Page<Person> searchByLastnamePrefix(@Param("term") String term, @Param("prefix") String prefix,
+            Pageable pageable);
+
+    /*
+     * @Modifying indica que la @Query es un update o delete masivo: se ejecuta
+     * como una sola sentencia en la base de datos sin cargar las entidades, por
+     * eso no se invocan los callbacks del ciclo de vida y Audit.updatedAt se
+     * asigna en la misma sentencia (local datetime). Hibernate invalida por sí
+     * mismo la región de Person y las consultas cacheadas sobre persons.
+     * 
+     * flushAutomatically envía antes los cambios pendientes del contexto de
+     * persistencia y clearAutomatically lo limpia después, para que no queden
+     * entidades con valores viejos. Deben ejecutarse dentro de una transacción;
+     * PersonBulkOperations además mantiene el índice de búsqueda, las
+     * estadísticas y la auditoría.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Person p set p.programingLanguage = :language, p.audit.updatedAt = local datetime where p.id in :ids")
+    int updateProgramingLanguageByIds(@Param("ids") Collection<Long> ids, @Param("language") String language);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Person p set p.programingLanguage = :language, p.audit.updatedAt = local datetime where p.id between :id1 and :id2")
+    int updateProgramingLanguageByIdBetween(@Param("id1") Long id1, @Param("id2") Long id2,
+            @Param("language") String language);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Person p set p.programingLanguage = :to, p.audit.updatedAt = local datetime where p.programingLanguage = :from")
+    int relabelProgramingLanguage(@Param("from") String from, @Param("to") String to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Person p where p.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Person p where p.id between :id1 and :id2")
+    int deleteByIdBetween(@Param("id1") Long id1, @Param("id2") Long id2);
+}
@@ -0,0 +1,70 @@
+package com.app.springboot_jpa.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import com.app.springboot_jpa.dto.AuditEvent;
+
+/**
+ * Buffer circular acotado y sin bloqueos para varios productores y un solo
+ * consumidor.
+ * 
+ * Cada productor reserva una posición avanzando tail con compareAndSet y luego
+ * publica el evento en esa posición. El consumidor lee en orden desde head y se
+ * detiene en la primera posición todavía vacía (reservada pero no publicada).
+ * Cuando el buffer está lleno offer devuelve false de inmediato, nunca espera.
+ */
+class AuditEventRingBuffer {
+
+    private final AtomicReferenceArray<AuditEvent> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    AuditEventRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("La capacidad debe ser una potencia de dos: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    boolean offer(AuditEvent event) {
+        long position;
+        do {
+            position = tail.get();
+            if (position - head >= slots.length()) {
+                return false;
+            }
+        } while (!tail.compareAndSet(position, position + 1));
+        slots.setRelease((int) (position & mask), event);
+        return true;
+    }
+
+    /**
+     * Entrega al consumidor hasta max eventos en el orden en que se reservaron y
+     * devuelve cuántos entregó. Solo debe llamarse desde un hilo a la vez.
+     */
+    int drain(Consumer<AuditEvent> consumer, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            AuditEvent event = slots.getAcquire(index);
+            if (event == null) {
+                break;
+            }
+            slots.setRelease(index, null);
+            consumer.accept(event);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
@@ -0,0 +1,157 @@
+package com.app.springboot_jpa.services;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.springboot_jpa.dto.AuditEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Hilo en segundo plano que vacía AuditTrail cada app.audit.flush-interval, o
+ * antes si AuditTrail lo despierta con wake, y escribe los eventos en la tabla
+ * audit_log con lotes de JDBC de hasta app.audit.batch-size filas, cada lote
+ * en su propia transacción. Al cerrar la aplicación escribe lo que quede
+ * pendiente. Si desde la escritura anterior se descartaron eventos por tener
+ * el buffer lleno, lo informa con un warning.
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT = "insert into audit_log (entity, entity_id, action, occurred_at) values (?, ?, ?, ?)";
+
+    @Autowired
+    private AuditTrail auditTrail;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.audit.flush-interval:PT1S}")
+    private Duration flushInterval;
+
+    @Value("${app.audit.batch-size:500}")
+    private int batchSize;
+
+    private ScheduledExecutorService executor;
+
+    private long reportedDrops;
+
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-log-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushSafely, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(flushInterval.toMillis() * 2, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    /**
+     * Pide un flush en el hilo del escritor sin esperar al próximo intervalo. Si
+     * ya hay uno pedido que todavía no empezó, no hace nada.
+     */
+    public void wake() {
+        if (executor != null && wakeRequested.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flushSafely);
+            } catch (RejectedExecutionException e) {
+                // La aplicación se está cerrando: stop() escribe lo pendiente
+                wakeRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Escribe todos los eventos pendientes y devuelve cuántas filas escribió.
+     * Los eventos que cubren un rango de ids se expanden aquí, en lotes de
+     * batchSize filas.
+     */
+    public synchronized long flush() {
+        wakeRequested.set(false);
+        long[] written = { 0 };
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        while (auditTrail.drain(event -> written[0] += addRows(event, rows), batchSize) > 0) {
+            written[0] += write(rows);
+        }
+        long dropped = auditTrail.getDroppedEvents();
+        if (dropped > reportedDrops) {
+            log.warn("{} eventos de auditoría descartados por buffer lleno ({} en total), considere aumentar"
+                    + " app.audit.buffer-capacity", dropped - reportedDrops, dropped);
+            reportedDrops = dropped;
+        }
+        return written[0];
+    }
+
+    /*
+     * Agrega las filas del evento y escribe cada lote que se completa; devuelve
+     * las filas escritas
+     */
+    private int addRows(AuditEvent event, List<Object[]> rows) {
+        int written = 0;
+        if (event.entityId() == null) {
+            rows.add(toRow(event, null));
+        } else {
+            for (long id = event.entityId(); id <= event.lastEntityId(); id++) {
+                rows.add(toRow(event, id));
+                if (rows.size() == batchSize) {
+                    written += write(rows);
+                }
+            }
+        }
+        return rows.size() == batchSize ? written + write(rows) : written;
+    }
+
+    private int write(List<Object[]> rows) {
+        int count = rows.size();
+        if (count > 0) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, rows));
+            rows.clear();
+        }
+        return count;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Un error de la base de datos no debe detener al hilo programado
+            log.error("No se pudieron escribir los eventos de auditoría", e);
+        }
+    }
+
+    private static Object[] toRow(AuditEvent event, Long entityId) {
+        return new Object[] { event.entity(), entityId, event.action().name(),
+                new Timestamp(event.occurredAt()) };
+    }
+}
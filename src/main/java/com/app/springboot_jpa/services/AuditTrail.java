@@ -0,0 +1,142 @@
+package com.app.springboot_jpa.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.app.springboot_jpa.dto.AuditEvent;
+
+/**
+ * Punto de entrada de la auditoría: los callbacks del ciclo de vida encolan los
+ * eventos aquí y AuditLogWriter los escribe en segundo plano.
+ * 
+ * Dentro de una transacción los eventos se guardan con la transacción y se
+ * encolan recién después del commit; un rollback los descarta, así audit_log
+ * no registra cambios que nunca ocurrieron. Los eventos de ids consecutivos
+ * con la misma operación se juntan en un solo evento de rango (AuditEvent
+ * con lastEntityId), así una transacción que inserta miles de personas
+ * (PersonBulkWriter, un lote de importación) guarda y encola unos pocos
+ * eventos en lugar de uno por fila. La lista de la transacción no pasa de la
+ * capacidad del buffer: lo que no cabría en el buffer tampoco se guarda y se
+ * cuenta como descartado al confirmar.
+ * 
+ * record nunca bloquea al hilo de la transacción ni ejecuta SQL. Cuando el
+ * buffer pasa de la mitad de su capacidad se despierta a AuditLogWriter sin
+ * esperar al próximo app.audit.flush-interval. Si aun así el escritor no
+ * alcanza a vaciarlo y se llena, el evento se descarta y se cuenta en
+ * getDroppedEvents; AuditLogWriter informa los descartes en el log.
+ */
+@Component
+public class AuditTrail {
+
+    private final AuditEventRingBuffer buffer;
+    private final int capacity;
+    private final ObjectProvider<AuditLogWriter> writer;
+    private final AtomicLong dropped = new AtomicLong();
+
+    // ObjectProvider: AuditLogWriter depende de este bean
+    public AuditTrail(@Value("${app.audit.buffer-capacity:8192}") int capacity,
+            ObjectProvider<AuditLogWriter> writer) {
+        this.buffer = new AuditEventRingBuffer(capacity);
+        this.capacity = capacity;
+        this.writer = writer;
+    }
+
+    public void record(String entity, Long entityId, AuditEvent.Action action) {
+        AuditEvent event = new AuditEvent(entity, entityId, action, System.currentTimeMillis());
+        PendingEvents pending = TransactionScoped.current(this, PendingEvents::new);
+        if (pending == null) {
+            offer(event);
+        } else {
+            pending.add(event);
+        }
+    }
+
+    /**
+     * Registra la misma operación para varios ids. Fuera de una transacción los
+     * ids consecutivos se encolan como un solo evento de rango.
+     */
+    public void recordAll(String entity, Collection<Long> entityIds, AuditEvent.Action action) {
+        PendingEvents pending = TransactionScoped.current(this, PendingEvents::new);
+        if (pending != null) {
+            entityIds.forEach(id -> record(entity, id, action));
+            return;
+        }
+        long now = System.currentTimeMillis();
+        AuditEvent range = null;
+        for (Long id : entityIds) {
+            AuditEvent extended = range == null ? null : range.extendTo(id);
+            if (extended == null) {
+                if (range != null) {
+                    offer(range);
+                }
+                extended = new AuditEvent(entity, id, action, now);
+            }
+            range = extended;
+        }
+        if (range != null) {
+            offer(range);
+        }
+    }
+
+    private void offer(AuditEvent event) {
+        if (!buffer.offer(event)) {
+            dropped.incrementAndGet();
+        }
+        if (buffer.size() >= capacity / 2) {
+            writer.ifAvailable(AuditLogWriter::wake);
+        }
+    }
+
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    public int getPendingEvents() {
+        return buffer.size();
+    }
+
+    int drain(Consumer<AuditEvent> consumer, int max) {
+        return buffer.drain(consumer, max);
+    }
+
+    private final class PendingEvents extends TransactionScoped {
+
+        private final List<AuditEvent> events = new ArrayList<>();
+        private long overflow;
+
+        PendingEvents() {
+            super(AuditTrail.this);
+        }
+
+        void add(AuditEvent event) {
+            if (!events.isEmpty()) {
+                AuditEvent last = events.get(events.size() - 1);
+                if (last.entity().equals(event.entity()) && last.action() == event.action()) {
+                    AuditEvent extended = last.extendTo(event.entityId());
+                    if (extended != null) {
+                        events.set(events.size() - 1, extended);
+                        return;
+                    }
+                }
+            }
+            if (events.size() < capacity) {
+                events.add(event);
+            } else {
+                overflow++;
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            events.forEach(AuditTrail.this::offer);
+            dropped.addAndGet(overflow);
+        }
+    }
+}
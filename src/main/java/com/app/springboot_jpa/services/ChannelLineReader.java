@@ -0,0 +1,84 @@
+package com.app.springboot_jpa.services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Lee un archivo línea por línea con un FileChannel y un buffer directo de
+ * tamaño fijo, sin cargar el archivo en memoria. Lleva la cuenta del byte
+ * donde empieza la siguiente línea, para poder guardar el avance y retomar la
+ * lectura desde ahí.
+ */
+class ChannelLineReader implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+    private final long size;
+    private byte[] line = new byte[256];
+    private long position;
+
+    ChannelLineReader(Path file, long offset) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.channel.position(offset);
+        this.position = offset;
+        this.buffer.flip();
+    }
+
+    /**
+     * Devuelve la siguiente línea sin el salto de línea (\n o \r\n), o null al
+     * llegar al final del archivo.
+     */
+    String readLine() throws IOException {
+        int length = 0;
+        long consumed = 0;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read <= 0) {
+                    if (consumed == 0) {
+                        return null;
+                    }
+                    break;
+                }
+            }
+            byte b = buffer.get();
+            consumed++;
+            if (b == '\n') {
+                break;
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, length * 2);
+            }
+            line[length++] = b;
+        }
+        position += consumed;
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Byte donde empieza la siguiente línea por leer.
+     */
+    long position() {
+        return position;
+    }
+
+    long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,75 @@
+package com.app.springboot_jpa.services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Contraparte de ChannelLineReader: escribe líneas en un FileChannel a través
+ * de un buffer directo de tamaño fijo, que solo se vacía al canal cuando se
+ * llena. Con gzip el canal se envuelve en un GZIPOutputStream, de modo que el
+ * archivo se comprime mientras se escribe, sin archivos temporales.
+ */
+class ChannelLineWriter implements AutoCloseable {
+
+    private final FileChannel file;
+    private final GZIPOutputStream gzip;
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+
+    ChannelLineWriter(Path path, boolean compress) throws IOException {
+        this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        if (compress) {
+            this.gzip = new GZIPOutputStream(Channels.newOutputStream(file), 1 << 16);
+            this.channel = Channels.newChannel(gzip);
+        } else {
+            this.gzip = null;
+            this.channel = file;
+        }
+    }
+
+    void writeLine(String line) throws IOException {
+        writeLine(line.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void writeLine(byte[] line) throws IOException {
+        if (buffer.remaining() < line.length + 1) {
+            drain();
+        }
+        if (buffer.remaining() < line.length + 1) {
+            // Línea más grande que el buffer: se escribe directamente
+            channel.write(ByteBuffer.wrap(line));
+        } else {
+            buffer.put(line);
+        }
+        buffer.put((byte) '\n');
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            if (gzip != null) {
+                gzip.finish();
+            }
+        } finally {
+            channel.close();
+            file.close();
+        }
+    }
+}
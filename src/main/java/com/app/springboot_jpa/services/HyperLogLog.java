@@ -0,0 +1,145 @@
+package com.app.springboot_jpa.services;
+
+import java.util.Arrays;
+
+/**
+ * Sketch HyperLogLog para estimar cuántos valores distintos se han visto con
+ * memoria fija: 2^precision registros de un byte.
+ * 
+ * Cada valor se convierte en un hash de 64 bits; los primeros precision bits
+ * eligen el registro y el registro guarda la mayor cantidad de ceros iniciales
+ * (+1) vista en el resto del hash. La estimación es la media armónica de los
+ * registros con la corrección de Flajolet et al. (alpha), y con corrección por
+ * conteo lineal cuando hay pocos valores.
+ * 
+ * El error estándar relativo es 1.04 / sqrt(2^precision): con precision 14
+ * (16 KB) es 0.81 %, es decir, en el 95 % de los casos la estimación queda a
+ * menos de ±1.6 % del valor exacto. Agregar un valor repetido no cambia el
+ * sketch, pero un valor agregado no se puede quitar. Dos sketches de la misma
+ * precisión se combinan con merge tomando el máximo de cada registro.
+ */
+public final class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("La precisión debe estar entre 4 y 18: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Reconstruye un sketch a partir de toBytes(); la precisión se deduce de la
+     * cantidad de registros.
+     */
+    public static HyperLogLog fromBytes(byte[] registers) {
+        if (Integer.bitCount(registers.length) != 1) {
+            throw new IllegalArgumentException("Cantidad de registros inválida: " + registers.length);
+        }
+        HyperLogLog sketch = new HyperLogLog(Integer.numberOfTrailingZeros(registers.length));
+        System.arraycopy(registers, 0, sketch.registers, 0, registers.length);
+        return sketch;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Error estándar relativo de la estimación.
+     */
+    public double getStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    public synchronized void add(String value) {
+        if (value == null) {
+            return;
+        }
+        long hash = hash64(value);
+        int index = (int) (hash >>> (64 - precision));
+        // El bit agregado limita el rango a 64 - precision + 1
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public synchronized long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1d / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /*
+     * La fórmula de Flajolet et al. solo vale desde 128 registros; para 16, 32
+     * y 64 el mismo trabajo da constantes fijas
+     */
+    static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    /**
+     * Agrega al sketch todos los valores de other, que debe tener la misma
+     * precisión: el resultado es el mismo que si se hubieran agregado aquí.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException(
+                    "No se pueden combinar sketches de precisión " + precision + " y " + other.precision);
+        }
+        byte[] values = other.toBytes();
+        synchronized (this) {
+            for (int i = 0; i < registers.length; i++) {
+                if (values[i] > registers[i]) {
+                    registers[i] = values[i];
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    public synchronized byte[] toBytes() {
+        return registers.clone();
+    }
+
+    /*
+     * FNV-1a de 64 bits sobre los caracteres, seguido del mezclador final de
+     * MurmurHash3 para que los bits altos (los que eligen el registro) queden
+     * bien distribuidos aunque los valores solo difieran al final
+     */
+    static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
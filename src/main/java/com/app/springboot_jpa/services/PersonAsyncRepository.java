@@ -0,0 +1,138 @@
+package com.app.springboot_jpa.services;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.springboot_jpa.config.ShardContext;
+import com.app.springboot_jpa.config.ShardRoutingDataSource;
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.PersonRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fachada asíncrona de PersonRepository.
+ * 
+ * Cada llamada se ejecuta en un hilo virtual y devuelve un CompletableFuture,
+ * así miles de consultas pueden estar en curso sin ocupar un hilo de plataforma
+ * cada una. Un semáforo de app.async.max-concurrency permisos hace esperar al
+ * resto en su hilo virtual, que es barato, en lugar de en el pool de
+ * conexiones. Por defecto es el tamaño del pool
+ * (spring.datasource.hikari.maximum-pool-size) menos RESERVED_CONNECTIONS: si
+ * las tareas asíncronas pudieran tomar todas las conexiones, las peticiones
+ * síncronas, el escritor de auditoría y los guardados programados esperarían
+ * a que terminen hasta agotar connection-timeout.
+ * 
+ * Las transacciones de Spring están ligadas al hilo, por lo que la transacción
+ * de quien llama no se propaga a la tarea asíncrona: cada tarea abre la suya
+ * (de solo lectura para query, de escritura para write) con propagación
+ * REQUIRES_NEW, y los resultados llegan desasociados del contexto de
+ * persistencia. La tarea usa el shard que quien llama eligió con
+ * ShardContext.
+ */
+@Service
+public class PersonAsyncRepository {
+
+    /*
+     * Conexiones del pool que las tareas asíncronas dejan libres cuando no se
+     * configura app.async.max-concurrency
+     */
+    static final int RESERVED_CONNECTIONS = 2;
+
+    @Autowired
+    private PersonRepository repository;
+
+    // Solo existe con app.sharding.enabled=true
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shards;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PersonAsyncRepository(PlatformTransactionManager transactionManager,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${app.async.max-concurrency:0}") int maxConcurrency) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.permits = new Semaphore(maxConcurrency > 0 ? maxConcurrency
+                : Math.max(1, maximumPoolSize - RESERVED_CONNECTIONS));
+    }
+
+    public CompletableFuture<Optional<Person>> findById(Long id) {
+        return query(repository -> repository.findById(id));
+    }
+
+    public CompletableFuture<Optional<Person>> findByName(String name) {
+        return query(repository -> repository.findByName(name));
+    }
+
+    public CompletableFuture<String> getFullNameById(Long id) {
+        return query(repository -> repository.getFullNameById(id));
+    }
+
+    public CompletableFuture<List<Person>> findByProgramingLanguage(String programingLanguage) {
+        return query(repository -> repository.findByProgramingLanguage(programingLanguage));
+    }
+
+    public CompletableFuture<List<Person>> getPersonsByIds(List<Long> ids) {
+        return query(repository -> repository.getPersonsByIds(ids));
+    }
+
+    public CompletableFuture<Person> save(Person person) {
+        return write(repository -> repository.save(person));
+    }
+
+    /**
+     * Ejecuta cualquier consulta del repositorio en una transacción de solo
+     * lectura en un hilo virtual.
+     */
+    public <T> CompletableFuture<T> query(Function<PersonRepository, T> call) {
+        shards.ifAvailable(routing -> routing.checkShardSelected("PersonAsyncRepository"));
+        return submit(readOnlyTransaction, call);
+    }
+
+    /**
+     * Ejecuta cualquier operación de escritura del repositorio en su propia
+     * transacción en un hilo virtual.
+     */
+    public <T> CompletableFuture<T> write(Function<PersonRepository, T> call) {
+        return submit(writeTransaction, call);
+    }
+
+    private <T> CompletableFuture<T> submit(TransactionTemplate transaction, Function<PersonRepository, T> call) {
+        Integer shard = ShardContext.current();
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            Integer previous = ShardContext.set(shard);
+            try {
+                return transaction.execute(status -> call.apply(repository));
+            } finally {
+                ShardContext.restore(previous);
+                permits.release();
+            }
+        }, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
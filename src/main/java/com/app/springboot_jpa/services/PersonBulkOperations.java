@@ -0,0 +1,156 @@
+package com.app.springboot_jpa.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.app.springboot_jpa.config.ShardRoutingDataSource;
+import com.app.springboot_jpa.dto.AuditEvent;
+import com.app.springboot_jpa.repositories.AuditLogRepository;
+import com.app.springboot_jpa.repositories.PersonRepository;
+
+/**
+ * Actualizaciones y eliminaciones masivas de Person con una sola sentencia,
+ * sin cargar las entidades (findById + save o deleteById hacen un SELECT por
+ * fila antes de modificarla).
+ * 
+ * Como las sentencias masivas no pasan por los listeners de Person, aquí se
+ * hace lo que ellos harían: borrar los trigramas de las personas eliminadas,
+ * invalidar las estadísticas en memoria, registrar el lenguaje nuevo en
+ * ProgrammingLanguageDictionary (el converter no registra los parámetros),
+ * agregarlo al sketch de PersonCardinality y registrar la auditoría. Cada
+ * método devuelve la cantidad de filas afectadas.
+ * 
+ * La auditoría no pasa por AuditTrail: antes de cada sentencia un insert ...
+ * select de AuditLogRepository con la misma condición escribe en audit_log una
+ * fila por persona afectada, en la misma transacción. Así no se leen los ids
+ * ni se encola un evento por fila, y una operación revertida no queda
+ * auditada. Las operaciones por ids envían la lista en bloques de
+ * app.multiget.chunk-size, igual que PersonMultiGetService, en vez de una sola
+ * cláusula IN (...) sin límite.
+ * 
+ * Las sentencias se ejecutan sobre la conexión de la transacción, así que con
+ * app.sharding.enabled y más de un shard se rechazan en lugar de modificar
+ * solo el shard 0.
+ */
+@Service
+@Transactional
+public class PersonBulkOperations {
+
+    private static final String UPDATE = AuditEvent.Action.UPDATE.name();
+
+    private static final String DELETE = AuditEvent.Action.DELETE.name();
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private PersonSearchIndex searchIndex;
+
+    @Autowired
+    private PersonStatistics statistics;
+
+    @Autowired
+    private PersonCardinality cardinality;
+
+    @Autowired
+    private AuditLogRepository auditLog;
+
+    @Autowired
+    private ProgrammingLanguageDictionary languages;
+
+    @Value("${app.multiget.chunk-size:512}")
+    private int chunkSize;
+
+    // Solo existe con app.sharding.enabled=true
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shards;
+
+    public int updateProgramingLanguage(Collection<Long> ids, String language) {
+        checkSingleShard();
+        register(language);
+        int updated = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            if (auditLog.insertForPersonIds(chunk, UPDATE) > 0) {
+                updated += repository.updateProgramingLanguageByIds(chunk, language);
+            }
+        }
+        if (updated > 0) {
+            cardinality.record(null, null, language);
+        }
+        return updated;
+    }
+
+    public int updateProgramingLanguageBetween(Long id1, Long id2, String language) {
+        checkSingleShard();
+        register(language);
+        auditLog.insertForPersonIdBetween(id1, id2, UPDATE);
+        int updated = repository.updateProgramingLanguageByIdBetween(id1, id2, language);
+        if (updated > 0) {
+            cardinality.record(null, null, language);
+        }
+        return updated;
+    }
+
+    public int relabelProgramingLanguage(String from, String to) {
+        checkSingleShard();
+        register(to);
+        auditLog.insertForPersonProgramingLanguage(from, UPDATE);
+        int updated = repository.relabelProgramingLanguage(from, to);
+        if (updated > 0) {
+            cardinality.record(null, null, to);
+        }
+        return updated;
+    }
+
+    public int deleteByIds(Collection<Long> ids) {
+        checkSingleShard();
+        int deleted = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            if (auditLog.insertForPersonIds(chunk, DELETE) > 0) {
+                deleted += repository.deleteByIds(chunk);
+                searchIndex.removeAll(chunk);
+            }
+        }
+        if (deleted > 0) {
+            statistics.invalidate();
+        }
+        return deleted;
+    }
+
+    public int deleteBetween(Long id1, Long id2) {
+        checkSingleShard();
+        auditLog.insertForPersonIdBetween(id1, id2, DELETE);
+        int deleted = repository.deleteByIdBetween(id1, id2);
+        if (deleted > 0) {
+            searchIndex.removeBetween(id1, id2);
+            statistics.invalidate();
+        }
+        return deleted;
+    }
+
+    private void register(String language) {
+        if (language != null) {
+            languages.register(language);
+        }
+    }
+
+    private void checkSingleShard() {
+        shards.ifAvailable(routing -> routing.checkSingleShard("PersonBulkOperations"));
+    }
+
+    private List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> distinct = ids.stream().distinct().toList();
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            chunks.add(distinct.subList(from, Math.min(from + chunkSize, distinct.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,52 @@
+package com.app.springboot_jpa.services;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.app.springboot_jpa.dto.BulkWriteReport;
+import com.app.springboot_jpa.entities.Person;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Modo de escritura masiva para Person.
+ * 
+ * repository.save() y repository.saveAll() mantienen todas las entidades en el
+ * contexto de persistencia hasta el commit, por lo que con millones de filas el
+ * heap crece sin límite y el flush final revisa cada entidad. Aquí se persiste
+ * directamente con el EntityManager y cada batchSize entidades se hace flush
+ * (Hibernate envía el lote de INSERT en un solo viaje gracias a
+ * hibernate.jdbc.batch_size) y clear (se liberan las entidades ya escritas).
+ * 
+ * El tamaño del lote debe coincidir con hibernate.jdbc.batch_size para que cada
+ * flush se traduzca exactamente en un lote de JDBC.
+ */
+@Service
+public class PersonBulkWriter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Transactional
+    public BulkWriteReport insertAll(Iterable<Person> persons) {
+        long start = System.nanoTime();
+        long rows = 0;
+        for (Person person : persons) {
+            entityManager.persist(person);
+            if (++rows % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return new BulkWriteReport("batched", rows, Duration.ofNanos(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,48 @@
+package com.app.springboot_jpa.services;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.app.springboot_jpa.dto.CacheRegionStats;
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.PersonRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Expone la relación de aciertos/fallos de las regiones de cache de Person a
+ * partir de las estadísticas de Hibernate (hibernate.generate_statistics).
+ */
+@Service
+public class PersonCacheStatistics {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public CacheRegionStats entityRegion() {
+        return region(Person.class.getName());
+    }
+
+    public CacheRegionStats queryRegion() {
+        return region(PersonRepository.QUERY_CACHE_REGION);
+    }
+
+    public List<CacheRegionStats> all() {
+        return List.of(entityRegion(), queryRegion());
+    }
+
+    private CacheRegionStats region(String name) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+        if (region == null) {
+            return new CacheRegionStats(name, 0, 0, 0, 0);
+        }
+        return new CacheRegionStats(name, region.getHitCount(), region.getMissCount(), region.getPutCount(),
+                region.getElementCountInMemory());
+    }
+}
@@ -0,0 +1,101 @@
+package com.app.springboot_jpa.services;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Completa las columnas derivadas de persons (name_length, full_name y
+ * full_name_key) en las filas que existían antes de agregarlas: ddl-auto=update
+ * crea las columnas vacías y Person solo las calcula al insertar o modificar.
+ * Se ejecuta al iniciar, después de SchemaChecksum y antes que
+ * PersonStatistics y los demás componentes que leen la tabla; cuando no hay
+ * filas pendientes son búsquedas vacías en los índices de name_length y
+ * full_name_key.
+ * 
+ * En los esquemas anteriores al diccionario de lenguajes, persons conserva la
+ * columna varchar programing_language y programing_language_id queda vacío:
+ * los nombres que falten se registran en ProgrammingLanguageDictionary y
+ * después se asigna el id a cada persona. Si la columna no existe no se hace
+ * nada.
+ * 
+ * Igual que PersonSequenceSync, solo existe con app.schema.check=record.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.schema", name = "check", havingValue = "record", matchIfMissing = true)
+public class PersonDerivedColumnsBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(PersonDerivedColumnsBackfill.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProgrammingLanguageDictionary languages;
+
+    @Autowired
+    private ApplicationStartup applicationStartup;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE + 10)
+    @EventListener(ContextRefreshedEvent.class)
+    public void onStartup() {
+        StartupStep step = applicationStartup.start("app.persons.backfill");
+        try {
+            backfill();
+        } finally {
+            step.end();
+        }
+    }
+
+    private void backfill() {
+        int updated = jdbcTemplate
+                .update("update persons set name_length = char_length(name) where name_length is null and name is not null");
+        if (updated > 0) {
+            log.info("name_length calculado para {} personas", updated);
+        }
+        updated = jdbcTemplate.update("update persons set full_name = concat(name, ' ', lastname),"
+                + " full_name_key = lower(concat(name, ' ', lastname))"
+                + " where full_name_key is null and name is not null and lastname is not null");
+        if (updated > 0) {
+            log.info("full_name calculado para {} personas", updated);
+        }
+        backfillProgrammingLanguageIds();
+    }
+
+    private void backfillProgrammingLanguageIds() {
+        if (!hasLegacyLanguageColumn()) {
+            return;
+        }
+        List<String> names = jdbcTemplate.queryForList("select distinct programing_language from persons"
+                + " where programing_language_id is null and programing_language is not null", String.class);
+        names.forEach(languages::register);
+        int updated = jdbcTemplate.update("update persons set programing_language_id ="
+                + " (select l.id from programming_languages l where l.name = persons.programing_language)"
+                + " where programing_language_id is null and programing_language is not null");
+        if (updated > 0) {
+            log.info("programing_language_id asignado a {} personas", updated);
+        }
+    }
+
+    private boolean hasLegacyLanguageColumn() {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet columns = connection.getMetaData().getColumns(connection.getCatalog(), null, "persons",
+                    "programing_language")) {
+                return columns.next();
+            }
+        });
+    }
+}
@@ -0,0 +1,178 @@
+package com.app.springboot_jpa.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.app.springboot_jpa.config.ShardRoutingDataSource;
+import com.app.springboot_jpa.dto.BulkWriteReport;
+import com.app.springboot_jpa.dto.PersonData;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Exportación de la tabla persons a CSV o NDJSON con memoria constante.
+ * 
+ * Las filas se leen con un cursor de JDBC (fetch size distinto de cero, que el
+ * driver de MariaDB entrega en streaming) y cada fila se escribe de inmediato
+ * en el archivo con ChannelLineWriter, sin listas intermedias ni entidades en
+ * un contexto de persistencia. Cada línea tiene la forma de la proyección
+ * PersonData (id, name, lastname, programingLanguage); el lenguaje se resuelve
+ * con ProgrammingLanguageDictionary en lugar de un join.
+ * 
+ * El formato se deduce de la extensión: .ndjson o .jsonl para NDJSON y
+ * cualquier otra para CSV; si además termina en .gz el archivo se comprime con
+ * gzip. Con shards mayor a 1 el rango de ids se divide en partes iguales y
+ * cada parte se exporta en paralelo a su propio archivo (personas-0.csv,
+ * personas-1.csv, ...), cada una con su propia conexión.
+ */
+@Service
+public class PersonExporter {
+
+    private static final String SELECT = "select id, name, lastname, programing_language_id from persons"
+            + " where id between ? and ? order by id";
+
+    private static final int FETCH_SIZE = 1000;
+
+    // Sin spring-web Spring Boot no registra un ObjectMapper; es seguro compartirlo entre hilos
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private ProgrammingLanguageDictionary languages;
+
+    // Solo existe con app.sharding.enabled=true: la exportación lee solo el shard 0
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shardRouting;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PersonExporter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    public BulkWriteReport exportFile(Path file, int shards) {
+        shardRouting.ifAvailable(routing -> routing.checkSingleShard("La exportación"));
+        long start = System.nanoTime();
+        Long minId = jdbcTemplate.queryForObject("select min(id) from persons", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from persons", Long.class);
+        if (minId == null) {
+            return new BulkWriteReport("export", exportRange(file, 1, 0), Duration.ofNanos(System.nanoTime() - start));
+        }
+        if (shards <= 1) {
+            return new BulkWriteReport("export", exportRange(file, minId, maxId),
+                    Duration.ofNanos(System.nanoTime() - start));
+        }
+
+        long span = (maxId - minId) / shards + 1;
+        List<Future<Long>> parts = new ArrayList<>(shards);
+        try (ExecutorService executor = Executors.newFixedThreadPool(shards)) {
+            for (int shard = 0; shard < shards; shard++) {
+                long from = minId + shard * span;
+                long to = Math.min(maxId, from + span - 1);
+                Path part = shardPath(file, shard);
+                parts.add(executor.submit(() -> exportRange(part, from, to)));
+            }
+            long rows = 0;
+            for (Future<Long> part : parts) {
+                rows += await(part);
+            }
+            return new BulkWriteReport("export x" + shards, rows, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private long exportRange(Path file, long fromId, long toId) {
+        String name = file.getFileName().toString();
+        boolean compress = name.endsWith(".gz");
+        String plain = compress ? name.substring(0, name.length() - 3) : name;
+        boolean ndjson = plain.endsWith(".ndjson") || plain.endsWith(".jsonl");
+
+        try (ChannelLineWriter writer = new ChannelLineWriter(file, compress)) {
+            if (!ndjson) {
+                writer.writeLine("id,name,lastname,programing_language");
+            }
+            long[] rows = { 0 };
+            jdbcTemplate.query(SELECT, rs -> {
+                writeRow(writer, ndjson, rs);
+                rows[0]++;
+            }, fromId, toId);
+            return rows[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir " + file, e);
+        }
+    }
+
+    private void writeRow(ChannelLineWriter writer, boolean ndjson, ResultSet rs) throws SQLException {
+        short language = rs.getShort(4);
+        // wasNull se refiere a la última columna leída, por eso va antes de leer las demás
+        String languageName = rs.wasNull() ? null : languages.nameOf(language);
+        PersonData row = new PersonData(rs.getLong(1), rs.getString(2), rs.getString(3), languageName);
+        try {
+            if (ndjson) {
+                writer.writeLine(objectMapper.writeValueAsBytes(row));
+            } else {
+                writer.writeLine(row.id() + "," + csv(row.name()) + "," + csv(row.lastname()) + ","
+                        + csv(row.programingLanguage()));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Un campo CSV va entre comillas solo si contiene comas, comillas o saltos de
+     * línea, o si es la cadena vacía: el campo vacío sin comillas es null. Es el
+     * mismo formato que lee PersonImporter
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /*
+     * personas.csv.gz -> personas-0.csv.gz
+     */
+    static Path shardPath(Path file, int shard) {
+        String name = file.getFileName().toString();
+        int dot = name.indexOf('.');
+        String shardName = dot < 0 ? name + "-" + shard : name.substring(0, dot) + "-" + shard + name.substring(dot);
+        return file.resolveSibling(shardName);
+    }
+
+    private static long await(Future<Long> part) {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Exportación interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
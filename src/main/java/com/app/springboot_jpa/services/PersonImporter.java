@@ -0,0 +1,213 @@
+package com.app.springboot_jpa.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.springboot_jpa.dto.BulkWriteReport;
+import com.app.springboot_jpa.entities.ImportCheckpoint;
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.ImportCheckpointRepository;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Importación masiva de personas desde un archivo CSV (name,lastname,
+ * programing_language, con encabezado opcional, o el CSV de PersonExporter con
+ * el id al inicio) o NDJSON (un objeto JSON por
+ * línea con name, lastname y programingLanguage, el id y cualquier otro campo
+ * se ignoran; extensión .ndjson o .jsonl).
+ * 
+ * El archivo se lee en streaming con ChannelLineReader y solo se mantiene en
+ * memoria el lote actual. Cada lote de batchSize personas se escribe con
+ * PersonBulkWriter en su propia transacción, junto con el ImportCheckpoint que
+ * registra el byte siguiente al lote. Si la importación falla, al volver a
+ * ejecutarla con el mismo archivo se retoma desde el último lote confirmado.
+ * El checkpoint guarda también el tamaño y la fecha de modificación del
+ * archivo: si cambiaron, es otro archivo en la misma ruta y se empieza de
+ * cero. El último lote borra el checkpoint en su transacción, así un archivo
+ * que se vuelve a generar en la misma ruta (una carga diaria) se importa
+ * completo la próxima vez.
+ */
+@Service
+public class PersonImporter {
+
+    @Autowired
+    private PersonBulkWriter bulkWriter;
+
+    @Autowired
+    private ImportCheckpointRepository checkpointRepository;
+
+    // Sin spring-web Spring Boot no registra un ObjectMapper; es seguro compartirlo entre hilos
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final TransactionTemplate transaction;
+
+    public PersonImporter(PlatformTransactionManager transactionManager) {
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    public BulkWriteReport importFile(Path file, int batchSize) {
+        String key = file.toAbsolutePath().normalize().toString();
+        ImportCheckpoint checkpoint = checkpointRepository.findById(key).orElseGet(() -> new ImportCheckpoint(key));
+        boolean ndjson = key.endsWith(".ndjson") || key.endsWith(".jsonl");
+        long size;
+        long modified;
+        try {
+            size = Files.size(file);
+            modified = Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer " + key, e);
+        }
+        if (!checkpoint.matches(size, modified)) {
+            if (checkpoint.getByteOffset() > 0) {
+                System.out.println("El archivo " + key + " cambió desde la importación anterior,"
+                        + " se importa desde el inicio");
+            }
+            checkpoint.restart(size, modified);
+        }
+        if (checkpoint.getByteOffset() > 0) {
+            System.out.println("Retomando " + key + " desde el byte " + checkpoint.getByteOffset() + " ("
+                    + checkpoint.getImportedRows() + " filas ya importadas)");
+        }
+
+        long start = System.nanoTime();
+        long imported = 0;
+        try (ChannelLineReader reader = new ChannelLineReader(file, checkpoint.getByteOffset())) {
+            List<Person> batch = new ArrayList<>(batchSize);
+            boolean firstLine = checkpoint.getByteOffset() == 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                boolean header = firstLine && !ndjson && isHeader(line);
+                firstLine = false;
+                if (!line.isBlank() && !header) {
+                    batch.add(ndjson ? parseJson(line) : parseCsv(line));
+                }
+                if (batch.size() == batchSize) {
+                    commit(checkpoint, batch, reader.position());
+                    imported += batch.size();
+                    batch.clear();
+                    progress(imported, reader, start);
+                }
+            }
+            complete(checkpoint, batch);
+            imported += batch.size();
+            progress(imported, reader, start);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer " + key, e);
+        }
+        return new BulkWriteReport("import", imported, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private void commit(ImportCheckpoint checkpoint, List<Person> batch, long nextOffset) {
+        transaction.executeWithoutResult(status -> {
+            bulkWriter.insertAll(batch);
+            checkpoint.setByteOffset(nextOffset);
+            checkpoint.setImportedRows(checkpoint.getImportedRows() + batch.size());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+        });
+    }
+
+    /*
+     * El último lote y el borrado del checkpoint van en la misma transacción
+     */
+    private void complete(ImportCheckpoint checkpoint, List<Person> batch) {
+        transaction.executeWithoutResult(status -> {
+            bulkWriter.insertAll(batch);
+            checkpointRepository.deleteById(checkpoint.getFile());
+        });
+    }
+
+    private static void progress(long imported, ChannelLineReader reader, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+        double percent = reader.size() == 0 ? 100 : reader.position() * 100d / reader.size();
+        System.out.println(String.format("Importadas %d filas (%.1f%%), %.1f filas/s", imported, percent,
+                seconds == 0 ? 0 : imported / seconds));
+    }
+
+    private Person parseJson(String line) {
+        try {
+            PersonRow row = objectMapper.readValue(line, PersonRow.class);
+            return new Person(null, row.name(), row.lastname(), row.programingLanguage());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Línea NDJSON inválida: " + line, e);
+        }
+    }
+
+    /*
+     * Separa una línea CSV en sus campos. Admite campos entre comillas con comas
+     * y comillas escapadas ("") dentro, pero no saltos de línea dentro de un
+     * campo.
+     * 
+     * Un campo vacío sin comillas se lee como null (así escribe PersonExporter
+     * los nulos) y "" entre comillas como cadena vacía; de lo contrario una
+     * persona sin lenguaje volvería a entrar con el lenguaje "".
+     */
+    static Person parseCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field(field, wasQuoted));
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field(field, wasQuoted));
+        if (fields.size() == 4) {
+            // Archivo generado por PersonExporter: el id original se descarta
+            fields.remove(0);
+        }
+        if (fields.size() != 3) {
+            throw new IllegalArgumentException("Se esperaban 3 campos en la línea CSV: " + line);
+        }
+        return new Person(null, fields.get(0), fields.get(1), fields.get(2));
+    }
+
+    private static String field(StringBuilder field, boolean quoted) {
+        return field.isEmpty() && !quoted ? null : field.toString();
+    }
+
+    private static boolean isHeader(String line) {
+        String lower = line.toLowerCase(Locale.ROOT);
+        return lower.startsWith("name,") || lower.startsWith("id,");
+    }
+
+    /*
+     * Las líneas de PersonExporter traen también el id, que se descarta igual
+     * que en el CSV
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record PersonRow(String name, String lastname, String programingLanguage) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.app.springboot_jpa.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.springboot_jpa.config.ShardContext;
+import com.app.springboot_jpa.config.ShardRoutingDataSource;
+import com.app.springboot_jpa.dto.MultiGetResult;
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.PersonRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Búsqueda de personas por una cantidad grande de ids.
+ * 
+ * getPersonsByIds con decenas de miles de ids genera un IN enorme y un plan de
+ * consulta distinto por cada tamaño de lista. Aquí los ids se dividen en
+ * bloques de app.multiget.chunk-size (potencia de dos), de modo que todos los
+ * bloques completos comparten el mismo plan; el último bloque lo rellena
+ * Hibernate hasta la siguiente potencia de dos
+ * (hibernate.query.in_clause_parameter_padding).
+ * 
+ * Los bloques se consultan en paralelo, cada uno en su propia transacción de
+ * solo lectura y por lo tanto con su propia conexión, en hilos virtuales. Un
+ * semáforo limita los bloques simultáneos a app.multiget.parallelism para no
+ * agotar el pool de conexiones. Cada bloque usa el shard que quien llama
+ * eligió con ShardContext.
+ */
+@Service
+public class PersonMultiGetService {
+
+    @Autowired
+    private PersonRepository repository;
+
+    // Solo existe con app.sharding.enabled=true
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shards;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final int chunkSize;
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PersonMultiGetService(PlatformTransactionManager transactionManager,
+            @Value("${app.multiget.chunk-size:512}") int chunkSize,
+            @Value("${app.multiget.parallelism:4}") int parallelism) {
+        if (chunkSize < 1 || Integer.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException("app.multiget.chunk-size debe ser una potencia de dos: " + chunkSize);
+        }
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.chunkSize = chunkSize;
+        this.permits = new Semaphore(parallelism);
+    }
+
+    public MultiGetResult<Person> findAllByIds(List<Long> ids) {
+        shards.ifAvailable(routing -> routing.checkShardSelected("PersonMultiGetService"));
+        Integer shard = ShardContext.current();
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.removeIf(id -> id == null);
+
+        List<Future<List<Person>>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + chunkSize, distinct.size()));
+            chunks.add(executor.submit(() -> fetch(shard, chunk)));
+        }
+
+        Map<Long, Person> byId = new HashMap<>(distinct.size() * 2);
+        for (Future<List<Person>> chunk : chunks) {
+            for (Person person : await(chunk)) {
+                byId.put(person.getId(), person);
+            }
+        }
+
+        List<Person> found = new ArrayList<>(byId.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Person person = id == null ? null : byId.get(id);
+            if (person != null) {
+                found.add(person);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MultiGetResult<>(found, missing);
+    }
+
+    private List<Person> fetch(Integer shard, List<Long> chunk) throws InterruptedException {
+        permits.acquire();
+        Integer previous = ShardContext.set(shard);
+        try {
+            return readOnlyTransaction.execute(status -> repository.getPersonsByIds(chunk));
+        } finally {
+            ShardContext.restore(previous);
+            permits.release();
+        }
+    }
+
+    private static List<Person> await(Future<List<Person>> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Búsqueda por ids interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,157 @@
+package com.app.springboot_jpa.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.app.springboot_jpa.config.ShardRoutingDataSource;
+import com.app.springboot_jpa.dto.KeysetPage;
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.PersonRepository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Paginación keyset (seek) de Person con tokens de continuación opacos.
+ * 
+ * Cada página agrega al where la condición "después de la última tupla (name,
+ * lastname, id)" en lugar de usar OFFSET, así una página profunda cuesta lo
+ * mismo que la primera. El id se incluye en el orden para que sea total y
+ * ninguna fila se repita ni se pierda entre páginas.
+ * 
+ * name y lastname admiten null. Como en MariaDB, null se ordena como el valor
+ * más bajo (primero en orden ascendente, último en descendente) y la condición
+ * usa is null / is not null para esas columnas. No se usa el scroll por keyset
+ * de Spring Data porque compara la columna con el valor (name > null) y pierde
+ * las filas siguientes.
+ * 
+ * El token guarda la última tupla de la página entregada, cada texto
+ * codificado en Base64 URL-safe y ~ para null, para que el cliente no dependa
+ * del formato ni de los nombres de los atributos. Un token null pide la
+ * primera página.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PersonPageService {
+
+    static final int PAGE_SIZE = 50;
+
+    private static final String NULL_TOKEN = "~";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Autowired
+    private PersonRepository repository;
+
+    // Solo existe con app.sharding.enabled=true
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shards;
+
+    public KeysetPage<Person> getAllOrderByName(String token) {
+        return page(token, null, Direction.ASC, Direction.ASC, Direction.ASC);
+    }
+
+    public KeysetPage<Person> findAllBetweenId(Long id1, Long id2, String token) {
+        return page(token, (person, cb) -> cb.between(person.get("id"), id1, id2), Direction.DESC, Direction.ASC,
+                Direction.ASC);
+    }
+
+    public KeysetPage<Person> findByIdBetweenOrderByNameDesc(Long id1, Long id2, String token) {
+        return page(token, (person, cb) -> cb.between(person.get("id"), id1, id2), Direction.DESC, Direction.DESC,
+                Direction.DESC);
+    }
+
+    public KeysetPage<Person> findAllBetweenName(String c1, String c2, String token) {
+        return page(token, (person, cb) -> cb.between(person.get("name"), c1, c2), Direction.DESC, Direction.ASC,
+                Direction.ASC);
+    }
+
+    private KeysetPage<Person> page(String token, Filter filter, Direction name, Direction lastname, Direction id) {
+        shards.ifAvailable(routing -> routing.checkShardSelected("PersonPageService"));
+        Key last = decode(token);
+        Specification<Person> specification = (person, query, cb) -> {
+            Predicate where = filter == null ? cb.conjunction() : filter.apply(person, cb);
+            if (last == null) {
+                return where;
+            }
+            Predicate afterLastname = cb.or(after(cb, person.get("lastname"), last.lastname(), lastname),
+                    cb.and(same(cb, person.get("lastname"), last.lastname()),
+                            after(cb, person.get("id"), last.id(), id)));
+            Predicate afterName = cb.or(after(cb, person.get("name"), last.name(), name),
+                    cb.and(same(cb, person.get("name"), last.name()), afterLastname));
+            return cb.and(where, afterName);
+        };
+        Sort sort = Sort.by(new Sort.Order(name, "name"), new Sort.Order(lastname, "lastname"),
+                new Sort.Order(id, "id"));
+
+        // Se pide una fila de más para saber si hay otra página
+        List<Person> rows = repository.findBy(specification, query -> query.sortBy(sort).limit(PAGE_SIZE + 1).all());
+        if (rows.size() <= PAGE_SIZE) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<Person> content = rows.subList(0, PAGE_SIZE);
+        return new KeysetPage<>(content, encode(content.get(PAGE_SIZE - 1)));
+    }
+
+    /*
+     * Filas que van después de value en el orden dado, con null como el valor
+     * más bajo.
+     */
+    private static <T extends Comparable<? super T>> Predicate after(CriteriaBuilder cb, Path<T> path, T value,
+            Direction direction) {
+        if (direction.isAscending()) {
+            return value == null ? cb.isNotNull(path) : cb.greaterThan(path, value);
+        }
+        return value == null ? cb.disjunction() : cb.or(cb.lessThan(path, value), cb.isNull(path));
+    }
+
+    private static Predicate same(CriteriaBuilder cb, Path<?> path, Object value) {
+        return value == null ? cb.isNull(path) : cb.equal(path, value);
+    }
+
+    static String encode(Person last) {
+        return encodeText(last.getName()) + "." + encodeText(last.getLastname()) + "." + last.getId();
+    }
+
+    static Key decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String[] parts = token.split("\\.", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Token de continuación inválido: " + token);
+        }
+        try {
+            return new Key(decodeText(parts[0]), decodeText(parts[1]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token de continuación inválido: " + token, e);
+        }
+    }
+
+    private static String encodeText(String text) {
+        return text == null ? NULL_TOKEN : ENCODER.encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeText(String part) {
+        return NULL_TOKEN.equals(part) ? null : new String(DECODER.decode(part), StandardCharsets.UTF_8);
+    }
+
+    record Key(String name, String lastname, Long id) {
+    }
+
+    @FunctionalInterface
+    private interface Filter {
+        Predicate apply(Root<Person> person, CriteriaBuilder cb);
+    }
+}
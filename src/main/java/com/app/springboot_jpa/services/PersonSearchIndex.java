@@ -0,0 +1,400 @@
+package com.app.springboot_jpa.services;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.entities.PersonTrigram;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Mantiene la tabla person_trigrams al día con los valores de name y lastname.
+ * 
+ * Escribe con JdbcTemplate y no con el EntityManager porque se invoca desde los
+ * callbacks del ciclo de vida de Person, donde JPA no permite operar sobre el
+ * contexto de persistencia. Dentro de una transacción de JPA el JdbcTemplate
+ * usa la misma conexión, así que el índice se confirma o se revierte junto con
+ * la persona.
+ * 
+ * Los callbacks usan las versiones OnCommit: los trigramas de la transacción se
+ * acumulan y se escriben en lotes de JDBC cada BUFFER_PERSONS personas y antes
+ * del commit, en lugar de un batchUpdate por cada persona guardada. Hibernate
+ * hace el último flush dentro del commit, después de beforeCommit de las
+ * sincronizaciones de Spring, por eso el resto del buffer se escribe con un
+ * proceso de la sesión que Hibernate ejecuta después de ese flush y antes del
+ * commit de la conexión. Un rollback descarta el buffer.
+ * 
+ * Al iniciar, si person_trigrams está vacía y persons no (la primera ejecución
+ * con filas existentes o las de import.sql), el índice se reconstruye, igual
+ * que PersonCardinality reconstruye los sketches que faltan, y si una
+ * reconstrucción quedó a mitad se continúa. Esa revisión y
+ * la eliminación del índice redundante son parte de la migración: con
+ * app.schema.check=verify (perfil fast-start) no se hacen.
+ */
+@Component
+public class PersonSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PersonSearchIndex.class);
+
+    static final int GRAM = 3;
+
+    static final int BUFFER_PERSONS = 500;
+
+    static final int REBUILD_CHUNK = 1000;
+
+    private static final String LEGACY_LOOKUP_INDEX = "idx_person_trigrams_lookup";
+
+    private static final String CHECKPOINT = "person_trigrams";
+
+    private static final String INSERT = "insert into person_trigrams (trigram, field, person_id) values (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // ObjectProvider: Hibernate crea este bean (a través de PersonSearchListener)
+    // mientras construye el EntityManagerFactory, que necesitan también el
+    // TransactionTemplate y su transaction manager
+    @Autowired
+    private ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    @Autowired
+    private ObjectProvider<TransactionTemplate> transactionTemplate;
+
+    @Autowired
+    private ApplicationStartup applicationStartup;
+
+    @Value("${app.schema.check:record}")
+    private String schemaCheck;
+
+    /*
+     * Después de PersonDerivedColumnsBackfill, que puede cambiar filas de persons
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE + 20)
+    @EventListener(ContextRefreshedEvent.class)
+    public void onStartup() {
+        if (!"record".equals(schemaCheck)) {
+            return;
+        }
+        StartupStep step = applicationStartup.start("app.persons.search-index");
+        try {
+            dropLegacyLookupIndex();
+            if (checkpoint() != null) {
+                log.info("Índice de trigramas reconstruido para {} personas (continuación)", resume());
+            } else if (isEmpty("person_trigrams") && !isEmpty("persons")) {
+                log.info("Índice de trigramas reconstruido para {} personas", rebuild());
+            }
+        } finally {
+            step.end();
+        }
+    }
+
+    /*
+     * Los esquemas anteriores tienen idx_person_trigrams_lookup con las mismas
+     * columnas que la llave primaria, una segunda copia en cada escritura;
+     * ddl-auto=update no borra índices
+     */
+    private void dropLegacyLookupIndex() {
+        boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet indexes = connection.getMetaData().getIndexInfo(connection.getCatalog(), null,
+                    "person_trigrams", false, true)) {
+                while (indexes.next()) {
+                    if (LEGACY_LOOKUP_INDEX.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+        if (exists) {
+            jdbcTemplate.execute("alter table person_trigrams drop index " + LEGACY_LOOKUP_INDEX);
+            log.info("Índice redundante {} eliminado", LEGACY_LOOKUP_INDEX);
+        }
+    }
+
+    private boolean isEmpty(String table) {
+        return jdbcTemplate.queryForList("select 1 from " + table + " limit 1", Integer.class).isEmpty();
+    }
+
+    public void indexOnCommit(Person person) {
+        PendingWrites pending = pending();
+        if (pending == null) {
+            index(person);
+        } else {
+            pending.index(person, false);
+        }
+    }
+
+    public void reindexOnCommit(Person person) {
+        PendingWrites pending = pending();
+        if (pending == null) {
+            reindex(person);
+        } else {
+            pending.index(person, true);
+        }
+    }
+
+    public void removeOnCommit(Long personId) {
+        PendingWrites pending = pending();
+        if (pending == null) {
+            remove(personId);
+        } else {
+            pending.remove(personId);
+        }
+    }
+
+    private PendingWrites pending() {
+        return TransactionScoped.current(this, () -> {
+            PendingWrites pending = new PendingWrites();
+            EntityManager entityManager = EntityManagerFactoryUtils
+                    .getTransactionalEntityManager(entityManagerFactory.getObject());
+            if (entityManager != null) {
+                entityManager.unwrap(SessionImplementor.class).getActionQueue()
+                        .registerProcess((BeforeTransactionCompletionProcess) session -> pending.write());
+            }
+            return pending;
+        });
+    }
+
+    public void index(Person person) {
+        List<Object[]> rows = new ArrayList<>();
+        addRows(rows, person.getId(), PersonTrigram.FIELD_NAME, person.getName());
+        addRows(rows, person.getId(), PersonTrigram.FIELD_LASTNAME, person.getLastname());
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        }
+    }
+
+    public void reindex(Person person) {
+        remove(person.getId());
+        index(person);
+    }
+
+    public void remove(Long personId) {
+        jdbcTemplate.update("delete from person_trigrams where person_id = ?", personId);
+    }
+
+    public void removeAll(Collection<Long> personIds) {
+        jdbcTemplate.batchUpdate("delete from person_trigrams where person_id = ?",
+                personIds.stream().map(id -> new Object[] { id }).toList());
+    }
+
+    public void removeBetween(Long id1, Long id2) {
+        jdbcTemplate.update("delete from person_trigrams where person_id between ? and ?", id1, id2);
+    }
+
+    /**
+     * Reconstruye el índice completo desde la tabla persons, necesario la primera
+     * vez y después de cargas hechas fuera de JPA (import.sql, SQL manual).
+     * Devuelve la cantidad de personas indexadas.
+     * 
+     * Recorre persons en bloques de REBUILD_CHUNK por id (keyset). Cada bloque
+     * se confirma en su propia transacción y reemplaza los trigramas de su rango
+     * de ids, desde el último id del bloque anterior hasta el suyo, incluidos los
+     * de personas que ya no existen: la búsqueda sigue respondiendo durante la
+     * reconstrucción y ninguna transacción retiene el índice completo. El avance
+     * se guarda en rebuild_checkpoints con cada bloque, así una reconstrucción
+     * interrumpida se continúa con resume (onStartup lo hace al iniciar).
+     * 
+     * Cada bloque se escribe después de cerrar su consulta: con un ResultSet
+     * abierto el driver de MariaDB cargaría en memoria el resto de las filas
+     * antes de ejecutar el batchUpdate en la misma conexión.
+     */
+    public long rebuild() {
+        chunkTransaction().executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from rebuild_checkpoints where name = ?", CHECKPOINT);
+            jdbcTemplate.update("insert into rebuild_checkpoints (name, last_id, processed_rows, updated_at)"
+                    + " values (?, null, 0, ?)", CHECKPOINT, Timestamp.valueOf(LocalDateTime.now()));
+        });
+        return resume();
+    }
+
+    /**
+     * Continúa la reconstrucción desde el último bloque confirmado y devuelve la
+     * cantidad total de personas indexadas, contando las de los bloques
+     * anteriores; 0 si no hay una reconstrucción pendiente.
+     */
+    public long resume() {
+        TransactionTemplate transaction = chunkTransaction();
+        while (true) {
+            Long persons = transaction.execute(status -> indexNextChunk());
+            if (persons != null) {
+                return persons;
+            }
+        }
+    }
+
+    /*
+     * Indexa el bloque siguiente al checkpoint y lo adelanta en la misma
+     * transacción. Devuelve el total después del último bloque (el checkpoint se
+     * borra) y null mientras queden bloques. El checkpoint se lee con for
+     * update: otra instancia que continúa la misma reconstrucción espera a que
+     * se confirme el bloque en lugar de repetirlo.
+     */
+    private Long indexNextChunk() {
+        List<Progress> found = jdbcTemplate.query(
+                "select last_id, processed_rows from rebuild_checkpoints where name = ? for update",
+                (rs, row) -> new Progress(rs.getObject(1, Long.class), rs.getLong(2)), CHECKPOINT);
+        if (found.isEmpty()) {
+            return 0L;
+        }
+        Progress progress = found.get(0);
+        long from = progress.lastId() == null ? Long.MIN_VALUE : progress.lastId();
+        List<Object[]> rows = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(REBUILD_CHUNK);
+        jdbcTemplate.query("select id, name, lastname from persons where id > ? order by id limit ?", rs -> {
+            long id = rs.getLong("id");
+            addRows(rows, id, PersonTrigram.FIELD_NAME, rs.getString("name"));
+            addRows(rows, id, PersonTrigram.FIELD_LASTNAME, rs.getString("lastname"));
+            ids.add(id);
+        }, from, REBUILD_CHUNK);
+        long to = ids.isEmpty() ? from : ids.get(ids.size() - 1);
+        jdbcTemplate.update("delete from person_trigrams where person_id > ? and person_id <= ?", from, to);
+        boolean last = ids.size() < REBUILD_CHUNK;
+        if (last) {
+            // Después del último id leído solo se borran los huérfanos: puede haber personas nuevas ya indexadas
+            jdbcTemplate.update("delete from person_trigrams where person_id > ?"
+                    + " and not exists (select 1 from persons p where p.id = person_trigrams.person_id)", to);
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        }
+        long persons = progress.processedRows() + ids.size();
+        if (last) {
+            jdbcTemplate.update("delete from rebuild_checkpoints where name = ?", CHECKPOINT);
+            return persons;
+        }
+        jdbcTemplate.update("update rebuild_checkpoints set last_id = ?, processed_rows = ?, updated_at = ?"
+                + " where name = ?", to, persons, Timestamp.valueOf(LocalDateTime.now()), CHECKPOINT);
+        return null;
+    }
+
+    private Progress checkpoint() {
+        return jdbcTemplate.query("select last_id, processed_rows from rebuild_checkpoints where name = ?",
+                (rs, row) -> new Progress(rs.getObject(1, Long.class), rs.getLong(2)), CHECKPOINT)
+                .stream().findFirst().orElse(null);
+    }
+
+    /*
+     * Una transacción nueva por bloque aunque quien llama tenga una abierta
+     */
+    private TransactionTemplate chunkTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(
+                transactionTemplate.getObject().getTransactionManager());
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transaction;
+    }
+
+    private record Progress(Long lastId, long processedRows) {
+    }
+
+    private static void addRows(List<Object[]> rows, Long personId, String field, String value) {
+        for (String trigram : trigrams(value)) {
+            rows.add(new Object[] { trigram, field, personId });
+        }
+    }
+
+    /**
+     * Trigramas distintos de un valor sin acentos y en minúsculas (TextKeys).
+     * La collation _ci de la columna trigram considera iguales "é" y "e": si se
+     * guardaran los dos, "José Josefa" daría "osé" y "ose" para la misma persona
+     * y campo, y el INSERT fallaría por la llave primaria. Trabaja por code
+     * points para no partir caracteres fuera del BMP. Un valor de menos de 3
+     * caracteres no tiene trigramas.
+     */
+    public static Set<String> trigrams(String value) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        if (value == null) {
+            return trigrams;
+        }
+        int[] codePoints = TextKeys.of(value).codePoints().toArray();
+        for (int i = 0; i + GRAM <= codePoints.length; i++) {
+            trigrams.add(new String(codePoints, i, GRAM));
+        }
+        return trigrams;
+    }
+
+    /*
+     * Cambios al índice de la transacción actual. removed son las personas cuyos
+     * trigramas se borran y rows los trigramas que se insertan después, por
+     * persona, con los últimos valores de name y lastname.
+     */
+    private final class PendingWrites extends TransactionScoped {
+
+        private final Set<Long> removed = new LinkedHashSet<>();
+        private final Map<Long, List<Object[]>> rows = new LinkedHashMap<>();
+
+        PendingWrites() {
+            super(PersonSearchIndex.this);
+        }
+
+        void index(Person person, boolean replace) {
+            if (replace) {
+                removed.add(person.getId());
+            }
+            List<Object[]> personRows = new ArrayList<>();
+            addRows(personRows, person.getId(), PersonTrigram.FIELD_NAME, person.getName());
+            addRows(personRows, person.getId(), PersonTrigram.FIELD_LASTNAME, person.getLastname());
+            rows.put(person.getId(), personRows);
+            if (rows.size() >= BUFFER_PERSONS) {
+                write();
+            }
+        }
+
+        void remove(Long personId) {
+            rows.remove(personId);
+            removed.add(personId);
+            if (removed.size() >= BUFFER_PERSONS) {
+                write();
+            }
+        }
+
+        void write() {
+            if (!removed.isEmpty()) {
+                removeAll(removed);
+                removed.clear();
+            }
+            List<Object[]> batch = new ArrayList<>();
+            rows.values().forEach(batch::addAll);
+            rows.clear();
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT, batch);
+            }
+        }
+
+        // Lo que llegue con el flush del commit lo escribe el proceso de la sesión
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write();
+        }
+    }
+}
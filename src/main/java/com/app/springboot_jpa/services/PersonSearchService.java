@@ -0,0 +1,76 @@
+package com.app.springboot_jpa.services;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.app.springboot_jpa.config.ShardRoutingDataSource;
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.PersonRepository;
+
+/**
+ * Búsqueda por subcadena en name y lastname con resultados paginados y
+ * ordenados por relevancia. Reemplaza a findOneLikeName y findByNameContaining,
+ * que recorren toda la tabla y fallan cuando coincide más de una persona.
+ * 
+ * La comparación no distingue mayúsculas ni acentos porque los trigramas se
+ * guardan sin ellos y las columnas usan la collation _ci por defecto de
+ * MariaDB. Un texto null o en blanco devuelve una página vacía.
+ * 
+ * Con más de un shard solo busca en el shard elegido con ShardContext;
+ * ShardedPersonRepository la ejecuta en cada shard y combina las páginas.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PersonSearchService {
+
+    @Autowired
+    private PersonRepository repository;
+
+    // Solo existe con app.sharding.enabled=true
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shards;
+
+    public Page<Person> searchName(String text, int page, int size) {
+        shards.ifAvailable(routing -> routing.checkShardSelected("PersonSearchService"));
+        PageRequest pageable = PageRequest.of(page, size);
+        if (text == null || text.isBlank()) {
+            return Page.empty(pageable);
+        }
+        String term = text.trim();
+        Set<String> trigrams = PersonSearchIndex.trigrams(term);
+        if (trigrams.isEmpty()) {
+            return repository.searchByNamePrefix(term, escape(term) + "%", pageable);
+        }
+        return repository.searchByNameTrigrams(trigrams, trigrams.size(), term, escape(term) + "%",
+                "%" + escape(term) + "%", pageable);
+    }
+
+    public Page<Person> searchLastname(String text, int page, int size) {
+        shards.ifAvailable(routing -> routing.checkShardSelected("PersonSearchService"));
+        PageRequest pageable = PageRequest.of(page, size);
+        if (text == null || text.isBlank()) {
+            return Page.empty(pageable);
+        }
+        String term = text.trim();
+        Set<String> trigrams = PersonSearchIndex.trigrams(term);
+        if (trigrams.isEmpty()) {
+            return repository.searchByLastnamePrefix(term, escape(term) + "%", pageable);
+        }
+        return repository.searchByLastnameTrigrams(trigrams, trigrams.size(), term, escape(term) + "%",
+                "%" + escape(term) + "%", pageable);
+    }
+
+    /*
+     * Escapa los comodines del texto del usuario para que '%' y '_' se busquen
+     * literalmente (las consultas declaran escape '!').
+     */
+    private static String escape(String term) {
+        return term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -0,0 +1,89 @@
+package com.app.springboot_jpa.services;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MariaDBDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.app.springboot_jpa.entities.Person;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Adelanta la secuencia persons_seq por encima del id máximo de persons.
+ * 
+ * Los ids se asignaban antes con IDENTITY; en una base existente
+ * ddl-auto=update crea la secuencia desde initialValue (6) y Hibernate
+ * entregaría ids que ya están en la tabla. Con el optimizador pooled cada
+ * valor de la secuencia es el último id de un bloque de ID_ALLOCATION_SIZE, así
+ * que el siguiente valor debe ser al menos max(id) + ID_ALLOCATION_SIZE.
+ * 
+ * Se ejecuta al iniciar, antes de PersonDerivedColumnsBackfill. Consultar el
+ * siguiente valor lo consume: ese bloque de ids se pierde, a cambio de no
+ * tocar la secuencia cuando ya está bien, que es el caso de todos los
+ * arranques salvo el primero después de la migración. Solo entonces se
+ * adelanta, y nunca hacia atrás: otra instancia que arranca al mismo tiempo o
+ * un proceso por lotes puede haber pedido valores entre la consulta y el
+ * cambio, y retroceder la secuencia le volvería a entregar ids ya usados. En
+ * MariaDB se usa setval, que ignora un valor menor al actual y no es DDL; en
+ * las demás bases alter sequence ... restart, con el destino siempre mayor al
+ * valor consultado.
+ * 
+ * Es parte de la migración del esquema: solo existe con app.schema.check=record
+ * (el perfil fast-start usa verify y supone una base ya migrada).
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.schema", name = "check", havingValue = "record", matchIfMissing = true)
+public class PersonSequenceSync {
+
+    private static final Logger log = LoggerFactory.getLogger(PersonSequenceSync.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationStartup applicationStartup;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE + 5)
+    @EventListener(ContextRefreshedEvent.class)
+    public void onStartup() {
+        StartupStep step = applicationStartup.start("app.persons.sequence-sync");
+        try {
+            sync();
+        } finally {
+            step.end();
+        }
+    }
+
+    private void sync() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from persons", Long.class);
+        Long next = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(Person.ID_SEQUENCE), Long.class);
+        if (maxId == null || next - Person.ID_ALLOCATION_SIZE >= maxId) {
+            return;
+        }
+        long target = maxId + Person.ID_ALLOCATION_SIZE;
+        if (dialect instanceof MariaDBDialect) {
+            // El siguiente nextval devuelve target + 1: el bloque sigue empezando después de max(id)
+            jdbcTemplate.queryForObject("select setval(" + Person.ID_SEQUENCE + ", ?)", Long.class, target);
+        } else {
+            jdbcTemplate.execute("alter sequence " + Person.ID_SEQUENCE + " restart with " + target);
+        }
+        log.info("{} adelantada a {} (id máximo de persons: {})", Person.ID_SEQUENCE, target, maxId);
+    }
+}
@@ -0,0 +1,355 @@
+package com.app.springboot_jpa.services;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.app.springboot_jpa.config.ShardRoutingDataSource;
+import com.app.springboot_jpa.dto.PersonAggregates;
+import com.app.springboot_jpa.dto.PersonTotals;
+import com.app.springboot_jpa.repositories.PersonRepository;
+
+/**
+ * Estadísticas de la tabla persons (total, id mínimo/máximo/suma y largo
+ * mínimo/máximo/promedio del nombre) mantenidas en memoria.
+ * 
+ * Se calculan con una sola consulta al iniciar la aplicación (con
+ * app.startup.warm-up=false, en el perfil fast-start, en la primera lectura) y
+ * luego se actualizan de forma incremental con los eventos del ciclo de vida
+ * de Person (PersonStatisticsListener). Los cambios de una transacción se
+ * acumulan y solo se aplican después del commit, así un rollback no altera las
+ * estadísticas.
+ * 
+ * Los mínimos y máximos no se pueden recalcular al eliminar el valor extremo,
+ * en ese caso las estadísticas quedan marcadas como inválidas y la siguiente
+ * lectura vuelve a consultar la base de datos. Los cambios hechos fuera de JPA
+ * (SQL manual, operaciones masivas) no generan eventos, por eso el modo de
+ * consistencia decide cuándo confiar en la memoria:
+ * 
+ * STRICT: siempre consulta la base de datos.
+ * BOUNDED: usa la memoria mientras el último cálculo completo no sea más
+ * antiguo que app.statistics.max-staleness.
+ * RELAXED: usa la memoria hasta que se invalide.
+ * 
+ * Los valores se guardan en un Snapshot inmutable, así las lecturas no
+ * esperan a un refresh en curso salvo que necesiten uno. Ver refresh y apply
+ * para cómo se combinan los deltas con una consulta que corre al mismo tiempo.
+ * 
+ * Con más de un shard la consulta solo vería el shard 0: no se calculan al
+ * iniciar y las lecturas fallan (ShardedPersonRepository suma los totales de
+ * cada shard). Como el Snapshot solo queda válido después de un refresh, basta
+ * con rechazar el refresh.
+ */
+@Service
+public class PersonStatistics {
+
+    public enum Consistency {
+        STRICT, BOUNDED, RELAXED
+    }
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Value("${app.statistics.consistency:BOUNDED}")
+    private Consistency consistency;
+
+    @Value("${app.statistics.max-staleness:PT5M}")
+    private Duration maxStaleness;
+
+    @Value("${app.startup.warm-up:true}")
+    private boolean warmUp;
+
+    @Autowired
+    private ApplicationStartup applicationStartup;
+
+    // Solo existe con app.sharding.enabled=true
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shards;
+
+    private final Object refreshLock = new Object();
+
+    private volatile Snapshot snapshot = new Snapshot(0, 0, 0, 0, null, null, null, null, false, 0);
+
+    /*
+     * generation aumenta al empezar y al terminar cada refresh; cada Delta
+     * guarda la generación en la que se creó. changes cuenta los deltas
+     * aplicados o descartados y las invalidaciones. Ambos se modifican con el
+     * monitor de this, que solo se toma por instantes.
+     */
+    private long generation;
+    private long changes;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void onStartup() {
+        ShardRoutingDataSource routing = shards.getIfAvailable();
+        if (!warmUp || routing != null && routing.getShardCount() > 1) {
+            return;
+        }
+        StartupStep step = applicationStartup.start("app.persons.statistics");
+        try {
+            refresh();
+        } finally {
+            step.end();
+        }
+    }
+
+    public Long getTotalPerson() {
+        return current().count();
+    }
+
+    public Long getMinId() {
+        return current().minId();
+    }
+
+    public Long getMaxId() {
+        return current().maxId();
+    }
+
+    public Integer getMinLengthName() {
+        return current().minNameLength();
+    }
+
+    public Integer getMaxLengthName() {
+        return current().maxNameLength();
+    }
+
+    public PersonAggregates getResumeAggregationFunction() {
+        Snapshot current = current();
+        return new PersonAggregates(current.minId(), current.maxId(), current.count() == 0 ? null : current.sumId(),
+                current.nameCount() == 0 ? null : (double) current.sumNameLength() / current.nameCount(),
+                current.count());
+    }
+
+    /**
+     * Descarta los valores en memoria, la siguiente lectura consulta la base de
+     * datos. Debe llamarse al modificar persons sin pasar por las entidades.
+     * Dentro de una transacción se vuelve a invalidar al terminar, para que una
+     * lectura hecha antes del commit no deje como válidos los valores previos.
+     */
+    public void invalidate() {
+        markInvalid();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    markInvalid();
+                }
+            });
+        }
+    }
+
+    private synchronized void markInvalid() {
+        changes++;
+        snapshot = snapshot.invalid();
+    }
+
+    /**
+     * Vuelve a calcular las estadísticas con una consulta. La consulta se
+     * ejecuta sin el monitor de this: las lecturas siguen usando los valores
+     * anteriores y los deltas se pueden aplicar mientras tanto. Si durante la
+     * consulta se aplicó o descartó algún cambio no se sabe si la consulta lo
+     * incluye, entonces el resultado queda marcado como inválido y la siguiente
+     * lectura vuelve a consultar.
+     */
+    public void refresh() {
+        shards.ifAvailable(routing -> routing.checkSingleShard("PersonStatistics"));
+        synchronized (refreshLock) {
+            long changesBefore;
+            synchronized (this) {
+                generation++;
+                changesBefore = changes;
+            }
+            PersonTotals totals = repository.getTotals();
+            synchronized (this) {
+                generation++;
+                snapshot = new Snapshot(totals.count(), totals.sumId(), totals.nameCount(), totals.sumNameLength(),
+                        totals.minId(), totals.maxId(), totals.minNameLength(), totals.maxNameLength(),
+                        changes == changesBefore, System.nanoTime());
+            }
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (isStale(current)) {
+            synchronized (refreshLock) {
+                // Otro hilo pudo terminar un refresh mientras se esperaba el lock
+                current = snapshot;
+                if (consistency == Consistency.STRICT || isStale(current)) {
+                    refresh();
+                    current = snapshot;
+                }
+            }
+        }
+        return current;
+    }
+
+    private boolean isStale(Snapshot current) {
+        return switch (consistency) {
+            case STRICT -> true;
+            case BOUNDED -> !current.valid() || System.nanoTime() - current.refreshedAt() > maxStaleness.toNanos();
+            case RELAXED -> !current.valid();
+        };
+    }
+
+    public void recordInsert(Long id, Integer nameLength) {
+        Delta delta = currentDelta();
+        delta.insert(id, nameLength);
+        applyIfNoTransaction(delta);
+    }
+
+    public void recordUpdate(Integer oldNameLength, Integer newNameLength) {
+        Delta delta = currentDelta();
+        delta.removeName(oldNameLength);
+        delta.addName(newNameLength);
+        applyIfNoTransaction(delta);
+    }
+
+    public void recordDelete(Long id, Integer nameLength) {
+        Delta delta = currentDelta();
+        delta.delete(id, nameLength);
+        applyIfNoTransaction(delta);
+    }
+
+    /*
+     * El delta se liga a la transacción actual con TransactionScoped: una
+     * transacción REQUIRES_NEW acumula el suyo y se aplica con su propio
+     * commit.
+     */
+    private Delta currentDelta() {
+        Delta delta = TransactionScoped.current(this, () -> new Delta(this, currentGeneration(), true));
+        return delta != null ? delta : new Delta(this, currentGeneration(), false);
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    private void applyIfNoTransaction(Delta delta) {
+        if (!delta.transactional) {
+            apply(delta);
+        }
+    }
+
+    /*
+     * Un delta creado antes de que empezara o terminara un refresh puede estar
+     * incluido o no en la consulta de ese refresh; en lugar de contarlo dos
+     * veces o perderlo se descarta y las estadísticas se vuelven a consultar.
+     */
+    private synchronized void apply(Delta delta) {
+        changes++;
+        Snapshot current = snapshot;
+        if (delta.generation != generation) {
+            snapshot = current.invalid();
+            return;
+        }
+        boolean valid = current.valid()
+                && !(delta.removedMinId != null && (current.minId() == null || delta.removedMinId <= current.minId())
+                        || delta.removedMaxId != null
+                                && (current.maxId() == null || delta.removedMaxId >= current.maxId())
+                        || delta.removedMinNameLength != null && (current.minNameLength() == null
+                                || delta.removedMinNameLength <= current.minNameLength())
+                        || delta.removedMaxNameLength != null && (current.maxNameLength() == null
+                                || delta.removedMaxNameLength >= current.maxNameLength()));
+        snapshot = new Snapshot(current.count() + delta.count, current.sumId() + delta.sumId,
+                current.nameCount() + delta.nameCount, current.sumNameLength() + delta.sumNameLength,
+                min(current.minId(), delta.addedMinId), max(current.maxId(), delta.addedMaxId),
+                min(current.minNameLength(), delta.addedMinNameLength),
+                max(current.maxNameLength(), delta.addedMaxNameLength), valid, current.refreshedAt());
+    }
+
+    private static <T extends Comparable<T>> T min(T current, T candidate) {
+        return candidate == null || current != null && current.compareTo(candidate) <= 0 ? current : candidate;
+    }
+
+    private static <T extends Comparable<T>> T max(T current, T candidate) {
+        return candidate == null || current != null && current.compareTo(candidate) >= 0 ? current : candidate;
+    }
+
+    private record Snapshot(long count, long sumId, long nameCount, long sumNameLength, Long minId, Long maxId,
+            Integer minNameLength, Integer maxNameLength, boolean valid, long refreshedAt) {
+
+        Snapshot invalid() {
+            return new Snapshot(count, sumId, nameCount, sumNameLength, minId, maxId, minNameLength, maxNameLength,
+                    false, refreshedAt);
+        }
+    }
+
+    /*
+     * Cambios acumulados de una transacción. Guarda los extremos agregados y
+     * eliminados para decidir al aplicarlos si los mínimos y máximos siguen
+     * siendo válidos.
+     */
+    private static class Delta extends TransactionScoped {
+        final PersonStatistics statistics;
+        final long generation;
+        final boolean transactional;
+        long count;
+        long sumId;
+        long nameCount;
+        long sumNameLength;
+        Long addedMinId;
+        Long addedMaxId;
+        Long removedMinId;
+        Long removedMaxId;
+        Integer addedMinNameLength;
+        Integer addedMaxNameLength;
+        Integer removedMinNameLength;
+        Integer removedMaxNameLength;
+
+        Delta(PersonStatistics statistics, long generation, boolean transactional) {
+            super(statistics);
+            this.statistics = statistics;
+            this.generation = generation;
+            this.transactional = transactional;
+        }
+
+        @Override
+        public void afterCommit() {
+            statistics.apply(this);
+        }
+
+        void insert(Long id, Integer nameLength) {
+            count++;
+            sumId += id;
+            addedMinId = min(addedMinId, id);
+            addedMaxId = max(addedMaxId, id);
+            addName(nameLength);
+        }
+
+        void delete(Long id, Integer nameLength) {
+            count--;
+            sumId -= id;
+            removedMinId = min(removedMinId, id);
+            removedMaxId = max(removedMaxId, id);
+            removeName(nameLength);
+        }
+
+        void addName(Integer nameLength) {
+            if (nameLength != null) {
+                nameCount++;
+                sumNameLength += nameLength;
+                addedMinNameLength = min(addedMinNameLength, nameLength);
+                addedMaxNameLength = max(addedMaxNameLength, nameLength);
+            }
+        }
+
+        void removeName(Integer nameLength) {
+            if (nameLength != null) {
+                nameCount--;
+                sumNameLength -= nameLength;
+                removedMinNameLength = min(removedMinNameLength, nameLength);
+                removedMaxNameLength = max(removedMaxNameLength, nameLength);
+            }
+        }
+    }
+}
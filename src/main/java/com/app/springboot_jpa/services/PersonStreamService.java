@@ -0,0 +1,88 @@
+package com.app.springboot_jpa.services;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.app.springboot_jpa.config.ShardRoutingDataSource;
+import com.app.springboot_jpa.dto.PersonData;
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.PersonRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Recorridos de la tabla persons con memoria constante.
+ * 
+ * Los métodos Stream del repositorio solo funcionan dentro de una transacción y
+ * el cursor debe cerrarse al terminar, por eso se encapsulan aquí: cada método
+ * abre la transacción de solo lectura, entrega las filas una por una al
+ * consumidor, desasocia (detach) cada entidad después de consumirla para que el
+ * contexto de persistencia no crezca, y cierra el Stream. Devuelven la cantidad
+ * de filas recorridas.
+ */
+@Service
+public class PersonStreamService {
+
+    @Autowired
+    private PersonRepository repository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Solo existe con app.sharding.enabled=true
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shards;
+
+    @Transactional(readOnly = true)
+    public long forEach(Consumer<Person> consumer) {
+        checkShardSelected();
+        return consume(repository.streamAll(), consumer);
+    }
+
+    @Transactional(readOnly = true)
+    public long forEachOrderByName(Consumer<Person> consumer) {
+        checkShardSelected();
+        return consume(repository.streamAllOrderByName(), consumer);
+    }
+
+    @Transactional(readOnly = true)
+    public long forEachOrderByNameDescLastnameDesc(Consumer<Person> consumer) {
+        checkShardSelected();
+        return consume(repository.streamAllByOrderByNameDescLastnameDesc(), consumer);
+    }
+
+    @Transactional(readOnly = true)
+    public long forEachPersonData(Consumer<PersonData> consumer) {
+        checkShardSelected();
+        try (Stream<PersonData> rows = repository.streamPersonDataList()) {
+            long count = 0;
+            for (Iterator<PersonData> it = rows.iterator(); it.hasNext(); count++) {
+                consumer.accept(it.next());
+            }
+            return count;
+        }
+    }
+
+    private long consume(Stream<Person> persons, Consumer<Person> consumer) {
+        try (persons) {
+            long count = 0;
+            for (Iterator<Person> it = persons.iterator(); it.hasNext(); count++) {
+                Person person = it.next();
+                consumer.accept(person);
+                entityManager.detach(person);
+            }
+            return count;
+        }
+    }
+
+    private void checkShardSelected() {
+        shards.ifAvailable(routing -> routing.checkShardSelected("PersonStreamService"));
+    }
+}
@@ -0,0 +1,170 @@
+package com.app.springboot_jpa.services;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Tabla en memoria id <-> nombre de programming_languages.
+ * 
+ * El contenido es una instantánea inmutable (un mapa nombre -> id y un arreglo
+ * indexado por id) que se publica en un campo volatile, así las búsquedas no
+ * necesitan sincronización. Se carga la primera vez que se usa, porque el
+ * converter se invoca por primera vez cuando Hibernate ya creó o actualizó el
+ * esquema.
+ * 
+ * idOf solo busca: el converter también se aplica a los parámetros de las
+ * consultas (findByProgramingLanguage("x")), y un nombre desconocido se
+ * traduce a UNKNOWN_ID, que no coincide con ninguna fila, en vez de quedar
+ * registrado por una lectura. Los lenguajes nuevos se registran con register
+ * desde el camino de escritura (ProgrammingLanguageListener en @PrePersist y
+ * @PreUpdate, las operaciones masivas): se insertan en su propia conexión con
+ * autocommit (no en la transacción de la persona, así un rollback no deja el
+ * diccionario en memoria con un id que no existe en la tabla) y se publica una
+ * nueva instantánea. Los nombres devueltos por nameOf son siempre la misma
+ * instancia de String, así las personas cargadas no duplican el texto del
+ * lenguaje.
+ * 
+ * El nombre se busca por su clave (TextKeys), sin mayúsculas ni acentos, como
+ * compara la collation _ci por defecto de MariaDB el índice único de la
+ * columna: "java" resuelve al id de "Java" en lugar de chocar con él al
+ * insertarlo.
+ * 
+ * Los lenguajes se registran durante el flush (@PreUpdate), cuando la transacción
+ * ya tiene una conexión del pool de la aplicación; si register pidiera otra al
+ * mismo pool, con todas las conexiones tomadas por transacciones en esa
+ * situación (por ejemplo con app.async.max-concurrency igual al tamaño del
+ * pool) ninguna
+ * avanzaría. Por eso el diccionario usa su propio pool de una sola conexión
+ * hacia spring.datasource (el shard 0 con app.sharding.enabled, donde vive la
+ * tabla); register y reload están sincronizados, así que nunca esperan por
+ * ella.
+ */
+@Component
+public class ProgrammingLanguageDictionary {
+
+    /**
+     * Id de los nombres que no están en el diccionario al usarlos como
+     * parámetro de una consulta: no existe en programming_languages.
+     */
+    public static final short UNKNOWN_ID = -1;
+
+    private final HikariDataSource dataSource;
+
+    private volatile Snapshot snapshot;
+
+    public ProgrammingLanguageDictionary(DataSourceProperties properties) {
+        this.dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.dataSource.setPoolName("programming-languages");
+        this.dataSource.setMaximumPoolSize(1);
+        this.dataSource.setMinimumIdle(0);
+    }
+
+    /**
+     * Id del lenguaje, o null si todavía no está registrado.
+     */
+    public Short idOf(String name) {
+        return snapshot().ids().get(TextKeys.of(name));
+    }
+
+    /**
+     * Id del lenguaje, registrándolo si es nuevo.
+     */
+    public short register(String name) {
+        Short id = idOf(name);
+        return id != null ? id : insert(name);
+    }
+
+    public String nameOf(short id) {
+        String[] names = snapshot().names();
+        if (id < 0 || id >= names.length || names[id] == null) {
+            // Lo registró otra instancia de la aplicación después de la última carga
+            names = reload().names();
+        }
+        if (id < 0 || id >= names.length || names[id] == null) {
+            throw new IllegalStateException("Lenguaje de programación desconocido: " + id);
+        }
+        return names[id];
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    private synchronized short insert(String name) {
+        String key = TextKeys.of(name);
+        Short id = snapshot().ids().get(key);
+        if (id != null) {
+            return id;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into programming_languages (id, name) select coalesce(max(id), 0) + 1, ? from programming_languages")) {
+                insert.setString(1, name);
+                insert.executeUpdate();
+            } catch (SQLException duplicate) {
+                // Otra instancia registró el mismo nombre o tomó el mismo id: se
+                // vuelve a leer la tabla y se reintenta una vez
+                snapshot = load(connection);
+                id = snapshot.ids().get(key);
+                if (id != null) {
+                    return id;
+                }
+                throw duplicate;
+            }
+            snapshot = load(connection);
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("No se pudo registrar el lenguaje " + name, e);
+        }
+        return snapshot.ids().get(key);
+    }
+
+    private synchronized Snapshot reload() {
+        try (Connection connection = dataSource.getConnection()) {
+            snapshot = load(connection);
+            return snapshot;
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("No se pudo cargar programming_languages", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+
+    private static Snapshot load(Connection connection) throws SQLException {
+        Map<String, Short> ids = new HashMap<>();
+        String[] names = new String[0];
+        try (PreparedStatement select = connection.prepareStatement("select id, name from programming_languages");
+                ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                short id = rs.getShort(1);
+                String name = rs.getString(2);
+                if (id >= names.length) {
+                    names = Arrays.copyOf(names, Math.max(id + 1, names.length * 2));
+                }
+                names[id] = name;
+                ids.putIfAbsent(TextKeys.of(name), id);
+            }
+        }
+        return new Snapshot(Map.copyOf(ids), names);
+    }
+
+    private record Snapshot(Map<String, Short> ids, String[] names) {
+    }
+}
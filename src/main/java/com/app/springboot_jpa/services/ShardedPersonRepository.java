@@ -0,0 +1,435 @@
+package com.app.springboot_jpa.services;
+
+import java.sql.Timestamp;
+import java.text.Collator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.springboot_jpa.config.ShardContext;
+import com.app.springboot_jpa.config.ShardRoutingDataSource;
+import com.app.springboot_jpa.dto.AuditEvent;
+import com.app.springboot_jpa.dto.PersonAggregates;
+import com.app.springboot_jpa.dto.PersonTotals;
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.PersonRepository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Acceso a persons repartida entre varios shards (app.sharding.enabled).
+ * 
+ * Cada operación ejecuta métodos de PersonRepository dentro de una transacción
+ * nueva con ShardContext apuntando al shard correspondiente, así la conexión
+ * de esa transacción es la de ese shard:
+ * 
+ * findById, getNameById y deleteById van solo al shard del id.
+ * findAll, getTotalPerson, getResumeAggregationFunction, findAllNamesDistinct,
+ * getAllOrderByName, searchName y searchLastname consultan todos los shards en
+ * paralelo (hilos virtuales) y combinan los resultados: se suman los conteos y
+ * sumas, se toman los extremos, el promedio se recalcula con la suma y la
+ * cantidad de nombres de cada shard, y los resultados ordenados por nombre se
+ * combinan con un merge de k vías.
+ * insertAll asigna los ids con el generador de Person sobre la secuencia del
+ * shard 0 (únicos en todos los shards) y luego inserta cada persona en su
+ * shard con lotes de JDBC.
+ * 
+ * insertAll no es atómica entre shards: cada shard confirma su lote en su
+ * propia transacción, en paralelo, y mientras tanto otras lecturas pueden ver
+ * una parte de las filas. Cada shard audita sus personas al confirmar; si
+ * alguno falla, las filas ya confirmadas en los demás se eliminan (y se audita
+ * la eliminación) antes de relanzar la excepción. Como las filas se insertan
+ * con JDBC sin pasar por los listeners de Person, las del shard 0 invalidan
+ * PersonStatistics y se agregan a PersonCardinality.
+ * 
+ * Los trigramas de cada persona están en su mismo shard, porque la búsqueda
+ * los cruza con persons: searchName y searchLastname ejecutan
+ * PersonSearchService en cada shard y combinan las páginas con el mismo orden
+ * por relevancia.
+ * 
+ * Cada shard ordena con la collation de su base (en MariaDB _ci, que no
+ * distingue mayúsculas ni acentos), y un merge solo es correcto si todas las
+ * listas siguen el mismo orden que el que las combina. Por eso cada lista de
+ * getAllOrderByName se ordena otra vez en Java con NAME_ORDER, un Collator de
+ * fuerza PRIMARY (tampoco distingue mayúsculas ni acentos), antes del merge;
+ * TimSort recorre en tiempo lineal una lista que ya llega en ese orden. Las
+ * coincidencias de la búsqueda se ordenan juntas con el mismo Collator.
+ * findAllNamesDistinct elimina los repetidos con el mismo Collator.
+ * 
+ * PersonStatistics, PersonCardinality y las consultas de PersonPageService,
+ * PersonStreamService, PersonMultiGetService y PersonAsyncRepository no
+ * combinan shards: con más de un shard fallan (ShardRoutingDataSource) en
+ * lugar de devolver solo las filas del shard 0.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardedPersonRepository {
+
+    private static final String ENTITY = Person.class.getSimpleName();
+
+    private static final String INSERT = "insert into persons (id, name, lastname, programing_language_id, name_length,"
+            + " full_name, full_name_key, create_at) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int COMPENSATION_CHUNK = 1000;
+
+    private static final Collator COLLATOR = Collator.getInstance(Locale.ROOT);
+
+    static {
+        COLLATOR.setStrength(Collator.PRIMARY);
+    }
+
+    private static final Comparator<String> NAME_ORDER = Comparator.nullsFirst(COLLATOR::compare);
+
+    private static final Comparator<Person> BY_NAME = Comparator.comparing(Person::getName, NAME_ORDER);
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private ShardRoutingDataSource shards;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProgrammingLanguageDictionary languages;
+
+    @Autowired
+    private PersonSearchIndex searchIndex;
+
+    @Autowired
+    private PersonSearchService searchService;
+
+    @Autowired
+    private AuditTrail auditTrail;
+
+    @Autowired
+    private PersonStatistics statistics;
+
+    @Autowired
+    private PersonCardinality cardinality;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardedPersonRepository(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Optional<Person> findById(Long id) {
+        return onShard(shards.shardFor(id), readOnlyTransaction, () -> repository.findById(id));
+    }
+
+    public String getNameById(Long id) {
+        return onShard(shards.shardFor(id), readOnlyTransaction, () -> repository.getNameById(id));
+    }
+
+    public void deleteById(Long id) {
+        onShard(shards.shardFor(id), writeTransaction, () -> {
+            repository.deleteById(id);
+            return null;
+        });
+    }
+
+    public List<Person> findAll() {
+        List<Person> all = new ArrayList<>();
+        for (Iterable<Person> shard : scatter(repository::findAll)) {
+            shard.forEach(all::add);
+        }
+        return all;
+    }
+
+    public Long getTotalPerson() {
+        return scatter(repository::getTotalPerson).stream().mapToLong(Long::longValue).sum();
+    }
+
+    public PersonAggregates getResumeAggregationFunction() {
+        long count = 0;
+        long sumId = 0;
+        long nameCount = 0;
+        long sumNameLength = 0;
+        Long minId = null;
+        Long maxId = null;
+        for (PersonTotals totals : scatter(repository::getTotals)) {
+            count += totals.count();
+            sumId += totals.sumId();
+            nameCount += totals.nameCount();
+            sumNameLength += totals.sumNameLength();
+            if (totals.minId() != null && (minId == null || totals.minId() < minId)) {
+                minId = totals.minId();
+            }
+            if (totals.maxId() != null && (maxId == null || totals.maxId() > maxId)) {
+                maxId = totals.maxId();
+            }
+        }
+        return new PersonAggregates(minId, maxId, count == 0 ? null : sumId,
+                nameCount == 0 ? null : (double) sumNameLength / nameCount, count);
+    }
+
+    public List<String> findAllNamesDistinct() {
+        Set<String> names = new TreeSet<>(NAME_ORDER);
+        scatter(repository::findAllNamesDistinct).forEach(names::addAll);
+        return new ArrayList<>(names);
+    }
+
+    public List<Person> getAllOrderByName() {
+        List<List<Person>> sorted = new ArrayList<>();
+        for (List<Person> shard : scatter(repository::getAllOrderByName)) {
+            List<Person> persons = new ArrayList<>(shard);
+            persons.sort(BY_NAME);
+            sorted.add(persons);
+        }
+        return merge(sorted, BY_NAME);
+    }
+
+    /*
+     * Merge de k listas ordenadas con un heap de una posición por lista:
+     * O(n log k). Con nombres iguales va primero el shard de menor número.
+     */
+    private static <T> List<T> merge(List<List<T>> lists, Comparator<? super T> order) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, lists.size()), (a, b) -> {
+            int compare = order.compare(lists.get(a[0]).get(a[1]), lists.get(b[0]).get(b[1]));
+            return compare != 0 ? compare : Integer.compare(a[0], b[0]);
+        });
+        int total = 0;
+        for (int list = 0; list < lists.size(); list++) {
+            total += lists.get(list).size();
+            if (!lists.get(list).isEmpty()) {
+                heads.add(new int[] { list, 0 });
+            }
+        }
+        List<T> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<T> list = lists.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (++head[1] < list.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    public Page<Person> searchName(String text, int page, int size) {
+        return search(text, page, size, Person::getName, limit -> searchService.searchName(text, 0, limit));
+    }
+
+    public Page<Person> searchLastname(String text, int page, int size) {
+        return search(text, page, size, Person::getLastname, limit -> searchService.searchLastname(text, 0, limit));
+    }
+
+    /*
+     * Cada shard devuelve sus primeras (page + 1) * size coincidencias; la
+     * página pedida sale de ordenarlas juntas como lo hace la consulta: primero
+     * el texto exacto, después los que empiezan con él y luego el resto, por
+     * campo e id. El total es la suma de los totales de cada shard.
+     */
+    private Page<Person> search(String text, int page, int size, Function<Person, String> field,
+            IntFunction<Page<Person>> query) {
+        if (text == null || text.isBlank()) {
+            return Page.empty(PageRequest.of(page, size));
+        }
+        String term = text.trim();
+        int limit = (page + 1) * size;
+        List<Person> matches = new ArrayList<>();
+        long total = 0;
+        for (Page<Person> shard : scatter(() -> query.apply(limit))) {
+            matches.addAll(shard.getContent());
+            total += shard.getTotalElements();
+        }
+        matches.sort(Comparator.<Person>comparingInt(person -> relevance(field.apply(person), term))
+                .thenComparing(field, NAME_ORDER).thenComparing(Person::getId));
+        List<Person> content = matches.subList(Math.min(page * size, matches.size()), Math.min(limit, matches.size()));
+        return new PageImpl<>(new ArrayList<>(content), PageRequest.of(page, size), total);
+    }
+
+    private static int relevance(String value, String term) {
+        if (value.equalsIgnoreCase(term)) {
+            return 0;
+        }
+        return value.regionMatches(true, 0, term, 0, term.length()) ? 1 : 2;
+    }
+
+    /**
+     * Inserta personas nuevas (sin id) en el shard que les corresponde y
+     * devuelve las mismas instancias con el id asignado.
+     */
+    public List<Person> insertAll(List<Person> persons) {
+        onShard(0, writeTransaction, () -> {
+            SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+            IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                    .getEntityDescriptor(Person.class).getGenerator();
+            persons.forEach(person -> person.setId((Long) generator.generate(session, person)));
+            return null;
+        });
+
+        List<List<Object[]>> rows = new ArrayList<>();
+        List<List<Person>> byShard = new ArrayList<>();
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            rows.add(new ArrayList<>());
+            byShard.add(new ArrayList<>());
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Person person : persons) {
+            person.updateDerivedColumns();
+            int shard = shards.shardFor(person.getId());
+            byShard.get(shard).add(person);
+            rows.get(shard).add(new Object[] { person.getId(), person.getName(), person.getLastname(),
+                    person.getProgramingLanguage() == null ? null : languages.register(person.getProgramingLanguage()),
+                    person.getNameLength(), person.getFullName(), person.getFullNameKey(), now });
+        }
+
+        Map<Integer, Future<Object>> writes = new LinkedHashMap<>();
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            int target = shard;
+            if (!rows.get(target).isEmpty()) {
+                writes.put(target, executor.submit(() -> {
+                    onShard(target, writeTransaction, () -> {
+                        jdbcTemplate.batchUpdate(INSERT, rows.get(target));
+                        byShard.get(target).forEach(searchIndex::index);
+                        return null;
+                    });
+                    inserted(target, byShard.get(target));
+                    return null;
+                }));
+            }
+        }
+
+        List<Integer> committed = new ArrayList<>();
+        RuntimeException failure = null;
+        for (Map.Entry<Integer, Future<Object>> write : writes.entrySet()) {
+            try {
+                await(write.getValue());
+                committed.add(write.getKey());
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            for (int shard : committed) {
+                try {
+                    compensate(shard, byShard.get(shard));
+                } catch (RuntimeException e) {
+                    failure.addSuppressed(e);
+                }
+            }
+            throw failure;
+        }
+        return persons;
+    }
+
+    /*
+     * Lo que harían los listeners de Person después del commit de un shard
+     */
+    private void inserted(int shard, List<Person> persons) {
+        auditTrail.recordAll(ENTITY, persons.stream().map(Person::getId).toList(), AuditEvent.Action.CREATE);
+        if (shard == 0) {
+            statistics.invalidate();
+            persons.forEach(person -> cardinality.record(person.getName(), person.getLastname(),
+                    person.getProgramingLanguage()));
+        }
+    }
+
+    /*
+     * Elimina de un shard las personas que insertAll ya había confirmado allí
+     * cuando otro shard falló
+     */
+    private void compensate(int shard, List<Person> persons) {
+        List<Long> ids = persons.stream().map(Person::getId).toList();
+        onShard(shard, writeTransaction, () -> {
+            for (int from = 0; from < ids.size(); from += COMPENSATION_CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(from + COMPENSATION_CHUNK, ids.size()));
+                repository.deleteByIds(chunk);
+                searchIndex.removeAll(chunk);
+            }
+            return null;
+        });
+        auditTrail.recordAll(ENTITY, ids, AuditEvent.Action.DELETE);
+        if (shard == 0) {
+            statistics.invalidate();
+        }
+    }
+
+    public int getShardCount() {
+        return shards.getShardCount();
+    }
+
+    private <T> List<T> scatter(Supplier<T> query) {
+        List<Future<T>> results = new ArrayList<>(shards.getShardCount());
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            int target = shard;
+            results.add(executor.submit(() -> onShard(target, readOnlyTransaction, query)));
+        }
+        return results.stream().map(ShardedPersonRepository::await).toList();
+    }
+
+    private static <T> T onShard(int shard, TransactionTemplate transaction, Supplier<T> work) {
+        Integer previous = ShardContext.set(shard);
+        try {
+            return transaction.execute(status -> work.get());
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private static <T> T await(Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta entre shards interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
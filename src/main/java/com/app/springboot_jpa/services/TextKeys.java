@@ -0,0 +1,24 @@
+package com.app.springboot_jpa.services;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Clave de comparación de un texto: sin acentos y en minúsculas, como compara
+ * la collation _ci por defecto de MariaDB. La usan el diccionario de
+ * lenguajes, los trigramas de la búsqueda y los sketches de cardinalidad, así
+ * los tres consideran iguales los mismos valores.
+ */
+public final class TextKeys {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}");
+
+    private TextKeys() {
+    }
+
+    public static String of(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,58 @@
+package com.app.springboot_jpa.services;
+
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Estado que se acumula durante una transacción y se procesa al confirmarla
+ * (beforeCommit o afterCommit de la subclase).
+ * 
+ * El estado se liga al TransactionSynchronizationManager con una clave y se
+ * registra como sincronización de la misma transacción. Cuando una transacción
+ * REQUIRES_NEW suspende a la actual, suspend() desliga el estado y resume() lo
+ * vuelve a ligar, así la transacción interna acumula el suyo y cada uno se
+ * procesa con su propio commit o rollback.
+ */
+abstract class TransactionScoped implements TransactionSynchronization {
+
+    private final Object key;
+
+    protected TransactionScoped(Object key) {
+        this.key = key;
+    }
+
+    /**
+     * Estado de la transacción actual para la clave, creado con factory la
+     * primera vez. null si no hay una transacción con sincronización activa.
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends TransactionScoped> T current(Object key, Supplier<T> factory) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        T state = (T) TransactionSynchronizationManager.getResource(key);
+        if (state == null) {
+            state = factory.get();
+            TransactionSynchronizationManager.bindResource(key, state);
+            TransactionSynchronizationManager.registerSynchronization(state);
+        }
+        return state;
+    }
+
+    @Override
+    public void suspend() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(key);
+    }
+
+    @Override
+    public void resume() {
+        TransactionSynchronizationManager.bindResource(key, this);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(key);
+    }
+}
@@ -1,5 +1,9 @@
-INSERT INTO persons (name, lastname, programing_language) VALUES ('Daniel', 'Santiago', 'Java');
-INSERT INTO persons (name, lastname, programing_language) VALUES ('Cristianio', 'Ronaldo', 'Python');
-INSERT INTO persons (name, lastname, programing_language) VALUES ('Lionel', 'Messi', 'Kotlin');
-INSERT INTO persons (name, lastname, programing_language) VALUES ('Yosef', 'Garcia', 'Java');
-INSERT INTO persons (name, lastname, programing_language) VALUES ('Barry', 'Allen', 'JavaScript');
\ No newline at end of file
+INSERT INTO programming_languages (id, name) VALUES (1, 'Java');
+INSERT INTO programming_languages (id, name) VALUES (2, 'Python');
+INSERT INTO programming_languages (id, name) VALUES (3, 'Kotlin');
+INSERT INTO programming_languages (id, name) VALUES (4, 'JavaScript');
+INSERT INTO persons (id, name, lastname, programing_language_id, name_length, full_name, full_name_key) VALUES (1, 'Daniel', 'Santiago', 1, 6, 'Daniel Santiago', 'daniel santiago');
+INSERT INTO persons (id, name, lastname, programing_language_id, name_length, full_name, full_name_key) VALUES (2, 'Cristianio', 'Ronaldo', 2, 10, 'Cristianio Ronaldo', 'cristianio ronaldo');
+INSERT INTO persons (id, name, lastname, programing_language_id, name_length, full_name, full_name_key) VALUES (3, 'Lionel', 'Messi', 3, 6, 'Lionel Messi', 'lionel messi');
+INSERT INTO persons (id, name, lastname, programing_language_id, name_length, full_name, full_name_key) VALUES (4, 'Yosef', 'Garcia', 1, 5, 'Yosef Garcia', 'yosef garcia');
+INSERT INTO persons (id, name, lastname, programing_language_id, name_length, full_name, full_name_key) VALUES (5, 'Barry', 'Allen', 4, 5, 'Barry Allen', 'barry allen');
\ No newline at end of file
@@ -0,0 +1,457 @@
+package com.app.springboot_jpa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.springboot_jpa.dto.KeysetPage;
+import com.app.springboot_jpa.entities.ImportCheckpoint;
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.ImportCheckpointRepository;
+import com.app.springboot_jpa.repositories.PersonRepository;
+import com.app.springboot_jpa.services.AuditLogWriter;
+import com.app.springboot_jpa.services.AuditTrail;
+import com.app.springboot_jpa.services.PersonBulkOperations;
+import com.app.springboot_jpa.services.PersonDerivedColumnsBackfill;
+import com.app.springboot_jpa.services.PersonExporter;
+import com.app.springboot_jpa.services.PersonImporter;
+import com.app.springboot_jpa.services.PersonPageService;
+import com.app.springboot_jpa.services.PersonSearchIndex;
+import com.app.springboot_jpa.services.PersonSearchService;
+import com.app.springboot_jpa.services.PersonSequenceSync;
+import com.app.springboot_jpa.services.PersonStatistics;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+/*
+ * Levanta el contexto con la configuración de application.properties (cache de
+ * segundo nivel incluido) sobre H2 en memoria en modo MariaDB, sin el
+ * CommandLineRunner de SpringbootJpaApplication que espera datos por consola.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:context;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.devtools.restart.enabled=false" })
+class PersistenceContextTests {
+
+	@Configuration
+	@EnableAutoConfiguration
+	@ComponentScan(excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = SpringbootJpaApplication.class))
+	static class TestApplication {
+	}
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PersonRepository repository;
+
+	@Autowired
+	private PersonPageService pageService;
+
+	@Autowired
+	private PersonSearchIndex searchIndex;
+
+	@Autowired
+	private PersonSearchService searchService;
+
+	@Autowired
+	private PersonStatistics statistics;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private AuditLogWriter auditLogWriter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PersonDerivedColumnsBackfill backfill;
+
+	@Autowired
+	private PersonSequenceSync sequenceSync;
+
+	@Autowired
+	private PersonImporter importer;
+
+	@Autowired
+	private PersonExporter exporter;
+
+	@Autowired
+	private ImportCheckpointRepository checkpointRepository;
+
+	@Autowired
+	private PersonBulkOperations bulkOperations;
+
+	@Autowired
+	private AuditTrail auditTrail;
+
+	@Value("${app.audit.buffer-capacity}")
+	private int auditBufferCapacity;
+
+	@TempDir
+	private Path tempDir;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Test
+	void secondLevelCacheStartsWithEhcacheConfiguration() {
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		assertTrue(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled());
+		assertTrue(sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled());
+		assertNotNull(sessionFactory.getCache().getRegion(Person.class.getName()));
+	}
+
+	@Test
+	void sequenceMovesOnlyForwardAndOnlyWhenBehindTheMaxId() {
+		Long ahead = repository.save(new Person(null, "Sequence", "Before", "Java")).getId() + 10_000;
+		jdbcTemplate.update("insert into persons (id, name, lastname) values (?, 'Sequence', 'Ahead')", ahead);
+		sequenceSync.onStartup();
+		// El bloque que sigue a este valor (pooled) empieza después de max(id)
+		long next = nextSequenceValue();
+		assertTrue(next - Person.ID_ALLOCATION_SIZE >= ahead, next + " no deja un bloque libre sobre " + ahead);
+
+		// Ya adelantada, un segundo arranque no la retrocede
+		sequenceSync.onStartup();
+		assertTrue(nextSequenceValue() > next);
+	}
+
+	private long nextSequenceValue() {
+		return jdbcTemplate.queryForObject("select next value for " + Person.ID_SEQUENCE, Long.class);
+	}
+
+	@Test
+	void keysetPagesVisitEveryPersonOnceWithNullNames() {
+		List<Person> persons = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			String name = i % 2 == 0 ? null : "Keyset" + (i % 10);
+			String lastname = i % 5 == 0 ? null : "Page" + (i % 3);
+			persons.add(new Person(null, name, lastname, "Java"));
+		}
+		repository.saveAll(persons);
+
+		Set<Long> seen = new HashSet<>();
+		String token = null;
+		do {
+			KeysetPage<Person> page = pageService.getAllOrderByName(token);
+			page.content().forEach(person -> assertTrue(seen.add(person.getId()), "repetida: " + person.getId()));
+			token = page.nextToken();
+		} while (token != null);
+		assertEquals(repository.count(), seen.size());
+
+		seen.clear();
+		token = null;
+		do {
+			KeysetPage<Person> page = pageService.findByIdBetweenOrderByNameDesc(1L, Long.MAX_VALUE, token);
+			page.content().forEach(person -> assertTrue(seen.add(person.getId()), "repetida: " + person.getId()));
+			token = page.nextToken();
+		} while (token != null);
+		assertEquals(repository.count(), seen.size());
+	}
+
+	@Test
+	void trigramIndexIsWrittenInBatchesAndRebuiltInChunks() {
+		List<Person> persons = new ArrayList<>();
+		for (int i = 0; i < 1200; i++) {
+			persons.add(new Person(null, "Trigramtest" + i, "Search", "Kotlin"));
+		}
+		repository.saveAll(persons);
+		assertEquals(1200, searchService.searchName("Trigramtest", 0, 10).getTotalElements());
+
+		assertEquals(repository.count(), searchIndex.rebuild());
+		assertEquals(1200, searchService.searchName("Trigramtest", 0, 10).getTotalElements());
+	}
+
+	@Test
+	void interruptedTrigramRebuildIsResumedOnStartup() {
+		List<Person> persons = new ArrayList<>();
+		for (int i = 0; i < 1200; i++) {
+			persons.add(new Person(null, "Resumetest" + i, "Search", "Kotlin"));
+		}
+		repository.saveAll(persons);
+		// Una reconstrucción que solo confirmó los bloques hasta la mitad de estas personas
+		Long middle = persons.get(600).getId();
+		jdbcTemplate.update("delete from person_trigrams where person_id > ?", middle);
+		jdbcTemplate.update("insert into rebuild_checkpoints (name, last_id, processed_rows, updated_at)"
+				+ " values ('person_trigrams', ?, 0, current_timestamp)", middle);
+		assertTrue(searchService.searchName("Resumetest", 0, 10).getTotalElements() < 1200);
+
+		searchIndex.onStartup();
+		assertEquals(1200, searchService.searchName("Resumetest", 0, 10).getTotalElements());
+		assertEquals(0, jdbcTemplate.queryForObject("select count(*) from rebuild_checkpoints", Integer.class));
+	}
+
+	@Test
+	void trigramsIgnoreAccentsAndBlankSearchesAreEmpty() {
+		assertEquals(PersonSearchIndex.trigrams("jose josefa"), PersonSearchIndex.trigrams("José Josefa"));
+		Long id = repository.save(new Person(null, "José Josefa", "Ñúñez", "Java")).getId();
+		assertEquals(PersonSearchIndex.trigrams("José Josefa").size(), jdbcTemplate.queryForObject(
+				"select count(*) from person_trigrams where person_id = ? and field = 'name'", Integer.class, id));
+
+		assertEquals(0, searchService.searchName(null, 0, 10).getTotalElements());
+		assertEquals(0, searchService.searchLastname("  ", 0, 10).getTotalElements());
+	}
+
+	@Test
+	void statisticsCountOnlyCommittedTransactions() {
+		statistics.refresh();
+		TransactionTemplate outer = new TransactionTemplate(transactionManager);
+		TransactionTemplate inner = new TransactionTemplate(transactionManager);
+		inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+		outer.executeWithoutResult(status -> {
+			repository.save(new Person(null, "Committed", "Outer", "Java"));
+			entityManager.flush();
+			inner.executeWithoutResult(innerStatus -> {
+				repository.save(new Person(null, "RolledBack", "Inner", "Java"));
+				entityManager.flush();
+				innerStatus.setRollbackOnly();
+			});
+		});
+		assertEquals(repository.count(), statistics.getTotalPerson());
+
+		outer.executeWithoutResult(status -> {
+			repository.save(new Person(null, "RolledBack", "Outer", "Java"));
+			entityManager.flush();
+			status.setRollbackOnly();
+		});
+		assertEquals(repository.count(), statistics.getTotalPerson());
+	}
+
+	@Test
+	void auditLogSkipsRolledBackTransactions() {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		Long rolledBack = transaction.execute(status -> {
+			Person person = repository.save(new Person(null, "Audit", "RolledBack", "Java"));
+			entityManager.flush();
+			status.setRollbackOnly();
+			return person.getId();
+		});
+		Long committed = transaction.execute(status -> repository.save(new Person(null, "Audit", "Committed", "Java")).getId());
+		auditLogWriter.flush();
+
+		assertEquals(0, auditEvents(rolledBack));
+		assertEquals(1, auditEvents(committed));
+	}
+
+	@Test
+	void transactionWithMoreEventsThanTheAuditBufferLosesNone() {
+		long dropped = auditTrail.getDroppedEvents();
+		List<Person> persons = new ArrayList<>();
+		for (int i = 0; i < auditBufferCapacity + 100; i++) {
+			persons.add(new Person(null, "AuditOverflow", "Row" + i, "Java"));
+		}
+		List<Long> ids = new ArrayList<>();
+		repository.saveAll(persons).forEach(person -> ids.add(person.getId()));
+		auditLogWriter.flush();
+
+		assertEquals(dropped, auditTrail.getDroppedEvents());
+		assertEquals(ids.size(), jdbcTemplate.queryForObject("select count(*) from audit_log where action = 'CREATE'"
+				+ " and entity_id between ? and ?", Integer.class, ids.get(0), ids.get(ids.size() - 1)));
+	}
+
+	private int auditEvents(Long personId) {
+		return jdbcTemplate.queryForObject("select count(*) from audit_log where entity = 'Person' and entity_id = ?",
+				Integer.class, personId);
+	}
+
+	@Test
+	void legacyProgrammingLanguageColumnIsBackfilled() {
+		Long id = repository.save(new Person(null, "Legacy", "Language", null)).getId();
+		jdbcTemplate.execute("alter table persons add column programing_language varchar(255)");
+		try {
+			jdbcTemplate.update("update persons set programing_language = 'Cobol' where id = ?", id);
+			backfill.onStartup();
+			entityManagerFactory.getCache().evict(Person.class);
+			assertEquals("Cobol", repository.findById(id).orElseThrow().getProgramingLanguage());
+		} finally {
+			jdbcTemplate.execute("alter table persons drop column programing_language");
+		}
+	}
+
+	@Test
+	void programmingLanguagesMatchLikeTheColumnCollationAndQueriesDoNotRegisterThem() {
+		int languages = languageCount();
+		Long lowercase = repository.save(new Person(null, "Collation", "Lowercase", "jAVA")).getId();
+		assertEquals(1, languageIdOf(lowercase));
+		assertEquals(languages, languageCount());
+
+		assertTrue(repository.findByProgramingLanguage("Sin registrar").isEmpty());
+		assertEquals(languages, languageCount());
+
+		String longName = "Lenguaje con un nombre bastante más largo que cincuenta caracteres";
+		Long longLanguage = repository.save(new Person(null, "Collation", "Long", longName)).getId();
+		assertEquals(languages + 1, languageCount());
+		assertEquals(longName, jdbcTemplate.queryForObject("select l.name from programming_languages l"
+				+ " join persons p on p.programing_language_id = l.id where p.id = ?", String.class, longLanguage));
+		assertEquals(1, repository.findByProgramingLanguage(longName).size());
+	}
+
+	private int languageCount() {
+		return jdbcTemplate.queryForObject("select count(*) from programming_languages", Integer.class);
+	}
+
+	private int languageIdOf(Long personId) {
+		return jdbcTemplate.queryForObject("select programing_language_id from persons where id = ?", Integer.class,
+				personId);
+	}
+
+	@Test
+	void importResumesFromTheCheckpointOnlyForTheSameFile() throws IOException {
+		String header = "name,lastname,programing_language\n";
+		String firstRows = "Resume,Row1,Java\nResume,Row2,Java\n";
+		Path file = tempDir.resolve("personas.csv");
+		Files.writeString(file, header + firstRows + "Resume,Row3,Java\nResume,Row4,\nResume,Row5,Java\n");
+		String key = file.toAbsolutePath().normalize().toString();
+		long size = Files.size(file);
+		long modified = Files.getLastModifiedTime(file).toMillis();
+
+		ImportCheckpoint checkpoint = new ImportCheckpoint(key);
+		checkpoint.restart(size, modified);
+		checkpoint.setByteOffset((header + firstRows).getBytes(StandardCharsets.UTF_8).length);
+		checkpoint.setImportedRows(2);
+		checkpointRepository.save(checkpoint);
+		assertEquals(3, importer.importFile(file, 2).rows());
+		assertEquals(3, personsNamed("Resume"));
+		assertTrue(checkpointRepository.findById(key).isEmpty());
+
+		// Terminada la importación, el mismo archivo se vuelve a importar completo
+		assertEquals(5, importer.importFile(file, 2).rows());
+
+		// Un checkpoint de otra versión del archivo no se usa
+		checkpoint = new ImportCheckpoint(key);
+		checkpoint.restart(size + 1, modified);
+		checkpoint.setByteOffset(size);
+		checkpointRepository.save(checkpoint);
+		assertEquals(5, importer.importFile(file, 2).rows());
+		assertEquals(13, personsNamed("Resume"));
+		assertEquals(3, jdbcTemplate.queryForObject("select count(*) from persons where name = 'Resume'"
+				+ " and programing_language_id is null", Integer.class));
+
+		Path ndjson = tempDir.resolve("personas.ndjson");
+		Files.writeString(ndjson, "{\"name\":\"Ndjson\",\"lastname\":\"Row1\",\"programingLanguage\":\"Java\"}\n"
+				+ "{\"name\":\"Ndjson\",\"lastname\":\"Row2\",\"programingLanguage\":null}\n");
+		assertEquals(2, importer.importFile(ndjson, 10).rows());
+		assertEquals(2, personsNamed("Ndjson"));
+	}
+
+	@Test
+	void ndjsonExportIsImportedBack() throws IOException {
+		for (int i = 0; i < 3; i++) {
+			repository.save(new Person(null, "RoundTrip", "Row" + i, i == 2 ? null : "Java"));
+		}
+		Path exported = tempDir.resolve("export.ndjson");
+		exporter.exportFile(exported, 1);
+		// Solo se vuelven a importar las filas de esta prueba, con el id que trae la exportación
+		Path file = tempDir.resolve("round-trip.ndjson");
+		try (Stream<String> lines = Files.lines(exported)) {
+			Files.write(file, lines.filter(line -> line.contains("\"RoundTrip\"")).toList());
+		}
+		assertTrue(Files.readString(file).contains("\"id\":"));
+
+		assertEquals(3, importer.importFile(file, 100).rows());
+		assertEquals(6, personsNamed("RoundTrip"));
+		assertEquals(2, jdbcTemplate.queryForObject("select count(*) from persons where name = 'RoundTrip'"
+				+ " and programing_language_id is null", Integer.class));
+	}
+
+	private int personsNamed(String name) {
+		return jdbcTemplate.queryForObject("select count(*) from persons where name = ?", Integer.class, name);
+	}
+
+	@Test
+	void bulkOperationsByIdsCountAndAuditOnlyExistingPersonsAcrossChunks() {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			ids.add(repository.save(new Person(null, "Bulk", "Row" + i, "Java")).getId());
+		}
+		Long missing = ids.get(4) + 1_000_000;
+		Object target = AopTestUtils.getTargetObject(bulkOperations);
+		Object chunkSize = ReflectionTestUtils.getField(target, "chunkSize");
+		ReflectionTestUtils.setField(target, "chunkSize", 2);
+		try {
+			List<Long> requested = new ArrayList<>(ids);
+			requested.add(missing);
+			assertEquals(5, bulkOperations.updateProgramingLanguage(requested, "Python"));
+			assertEquals(3, bulkOperations.deleteByIds(List.of(ids.get(0), ids.get(1), ids.get(2), missing)));
+		} finally {
+			ReflectionTestUtils.setField(target, "chunkSize", chunkSize);
+		}
+		auditLogWriter.flush();
+
+		assertEquals(2, jdbcTemplate.queryForObject("select count(*) from persons p join programming_languages l"
+				+ " on l.id = p.programing_language_id where p.name = 'Bulk' and l.name = 'Python'", Integer.class));
+		for (Long id : ids) {
+			assertEquals(id < ids.get(3) ? 3 : 2, auditEvents(id));
+		}
+		assertEquals(0, auditEvents(missing));
+		assertEquals(0, bulkOperations.deleteBetween(missing, missing + 10));
+	}
+
+	@Test
+	void bulkOperationsAuditEveryPersonBeyondTheAuditBufferCapacity() {
+		List<Person> persons = new ArrayList<>();
+		for (int i = 0; i <= auditBufferCapacity; i++) {
+			persons.add(new Person(null, "BulkAudit", "Row" + i, "Java"));
+		}
+		List<Long> ids = new ArrayList<>();
+		repository.saveAll(persons).forEach(person -> ids.add(person.getId()));
+		long dropped = auditTrail.getDroppedEvents();
+
+		assertEquals(ids.size(), bulkOperations.updateProgramingLanguage(ids, "Go"));
+		assertEquals(ids.size(), bulkOperations.deleteByIds(ids));
+		assertEquals(dropped, auditTrail.getDroppedEvents());
+
+		String count = "select count(*) from audit_log where action = ? and entity_id between ? and ?";
+		Long first = ids.get(0);
+		Long last = ids.get(ids.size() - 1);
+		assertEquals(ids.size(), jdbcTemplate.queryForObject(count, Integer.class, "UPDATE", first, last));
+		assertEquals(ids.size(), jdbcTemplate.queryForObject(count, Integer.class, "DELETE", first, last));
+	}
+
+	@Test
+	void emptyTrigramIndexIsRebuiltOnStartup() {
+		jdbcTemplate.update("delete from person_trigrams");
+		searchIndex.onStartup();
+		assertEquals(1, searchService.searchName("Daniel", 0, 10).getTotalElements());
+		assertEquals(repository.count(),
+				jdbcTemplate.queryForObject("select count(distinct person_id) from person_trigrams", Long.class));
+	}
+}
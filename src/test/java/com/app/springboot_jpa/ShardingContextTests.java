@@ -0,0 +1,158 @@
+package com.app.springboot_jpa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Page;
+
+import com.app.springboot_jpa.config.ShardContext;
+import com.app.springboot_jpa.config.ShardRoutingDataSource;
+import com.app.springboot_jpa.entities.Person;
+import com.app.springboot_jpa.repositories.PersonRepository;
+import com.app.springboot_jpa.services.PersonCardinality;
+import com.app.springboot_jpa.services.PersonPageService;
+import com.app.springboot_jpa.services.PersonSearchService;
+import com.app.springboot_jpa.services.PersonStatistics;
+import com.app.springboot_jpa.services.ShardedPersonRepository;
+
+/*
+ * Dos shards H2 en memoria con rangos de 20 ids: el shard 0 es spring.datasource
+ * y el shard 1 se configura en app.sharding.shards[0]. H2 compara con
+ * distinción de mayúsculas, a diferencia de la collation _ci de MariaDB.
+ * 
+ * Las pruebas comparten los ids de la secuencia: la búsqueda va primero para
+ * que sus personas queden repartidas entre los dos shards.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:shard0ctx;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.devtools.restart.enabled=false",
+		"app.sharding.enabled=true",
+		"app.sharding.strategy=RANGE",
+		"app.sharding.range-size=20",
+		"app.sharding.shards[0].url=jdbc:h2:mem:shard1ctx;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"app.sharding.shards[0].username=sa",
+		"app.sharding.shards[0].password=" })
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ShardingContextTests {
+
+	@Configuration
+	@EnableAutoConfiguration
+	@ComponentScan(excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = SpringbootJpaApplication.class))
+	static class TestApplication {
+	}
+
+	@Autowired
+	private ShardedPersonRepository sharded;
+
+	@Autowired
+	private PersonRepository repository;
+
+	@Autowired
+	private ShardRoutingDataSource shardRouting;
+
+	@Autowired
+	private PersonStatistics statistics;
+
+	@Autowired
+	private PersonCardinality cardinality;
+
+	@Autowired
+	private PersonPageService pageService;
+
+	@Autowired
+	private PersonSearchService searchService;
+
+	@Test
+	@Order(1)
+	void personsOfEveryShardAreSearchableAndNamesMergeIgnoringCase() {
+		List<Person> persons = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			persons.add(new Person(null, i % 2 == 0 ? "Shardsearch" : "SHARDSEARCH", "Merge" + i, "Java"));
+		}
+		sharded.insertAll(persons);
+
+		Set<Integer> shardsFound = new HashSet<>();
+		Set<Long> ids = new HashSet<>();
+		for (int page = 0; page < 2; page++) {
+			Page<Person> result = sharded.searchName("Shardsearch", page, 10);
+			assertEquals(20, result.getTotalElements());
+			result.forEach(person -> {
+				ids.add(person.getId());
+				shardsFound.add(shardRouting.shardFor(person.getId()));
+			});
+		}
+		assertEquals(20, ids.size());
+		assertEquals(2, shardsFound.size());
+		assertEquals(1, sharded.findAllNamesDistinct().stream().filter("shardsearch"::equalsIgnoreCase).count());
+	}
+
+	@Test
+	@Order(2)
+	void writesOfAnotherShardThroughPersonRepositoryAreRejected() {
+		List<Person> persons = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			persons.add(new Person(null, "Guard", "Shard" + i, "Java"));
+		}
+		sharded.insertAll(persons);
+		long total = sharded.getTotalPerson();
+
+		RuntimeException rejected = assertThrows(RuntimeException.class,
+				() -> repository.save(new Person(null, "Guard", "Rejected", "Java")));
+		assertInstanceOf(IllegalStateException.class, NestedExceptionUtils.getMostSpecificCause(rejected));
+		assertEquals(total, sharded.getTotalPerson());
+	}
+
+	@Test
+	@Order(3)
+	void namesAreMergedIgnoringCaseAndAccents() {
+		sharded.insertAll(List.of(new Person(null, "Zoe", "Order", "Java"), new Person(null, "álvaro", "Order", "Java"),
+				new Person(null, "Bruno", "Order", "Java"), new Person(null, "Alvarez", "Order", "Java")));
+		List<String> names = sharded.getAllOrderByName().stream().filter(person -> "Order".equals(person.getLastname()))
+				.map(Person::getName).toList();
+		assertEquals(List.of("Alvarez", "álvaro", "Bruno", "Zoe"), names);
+	}
+
+	@Test
+	@Order(4)
+	void readsThatWouldOnlySeeShardZeroAreRejected() {
+		assertThrows(IllegalStateException.class, statistics::getTotalPerson);
+		assertThrows(IllegalStateException.class, cardinality::distinctNames);
+		assertThrows(IllegalStateException.class, () -> pageService.getAllOrderByName(null));
+		assertThrows(IllegalStateException.class, () -> searchService.searchName("Shardsearch", 0, 10));
+
+		// Con un shard elegido la búsqueda lee ese shard, como la ejecuta ShardedPersonRepository
+		long total = 0;
+		for (int shard = 0; shard < shardRouting.getShardCount(); shard++) {
+			Integer previous = ShardContext.set(shard);
+			try {
+				total += searchService.searchName("Shardsearch", 0, 10).getTotalElements();
+			} finally {
+				ShardContext.restore(previous);
+			}
+		}
+		assertEquals(20, total);
+	}
+}
@@ -0,0 +1,82 @@
+package com.app.springboot_jpa.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ReadWriteRoutingDataSourceTests {
+
+	private ReadWriteRoutingDataSource routing;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readOnly;
+	private TransactionTemplate readWrite;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		replicas.put("replica-0", database("replica0"));
+		replicas.put("replica-1", database("replica1"));
+		routing = new ReadWriteRoutingDataSource(database("primary"), replicas,
+				ReadWriteRoutingDataSource.Strategy.ROUND_ROBIN);
+		routing.afterPropertiesSet();
+
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		readWrite = new TransactionTemplate(transactionManager);
+	}
+
+	@Test
+	void readOnlyTransactionsGoToReplicasInTurn() {
+		assertEquals("replica0", readOnly.execute(status -> node()));
+		assertEquals("replica1", readOnly.execute(status -> node()));
+		assertEquals("replica0", readOnly.execute(status -> node()));
+	}
+
+	@Test
+	void writesAndNonTransactionalAccessStayOnPrimary() {
+		assertEquals("primary", readWrite.execute(status -> node()));
+		assertEquals("primary", node());
+	}
+
+	@Test
+	void unavailableReplicasFallBackToPrimary() {
+		routing.setReplicaHealthy("replica-0", false);
+		assertEquals("replica1", readOnly.execute(status -> node()));
+		assertEquals("replica1", readOnly.execute(status -> node()));
+
+		routing.setReplicaHealthy("replica-1", false);
+		assertEquals("primary", readOnly.execute(status -> node()));
+	}
+
+	private String node() {
+		return jdbcTemplate.queryForObject("select name from node", String.class);
+	}
+
+	private static DataSource database(String name) throws SQLException {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("create table if not exists node (name varchar(20))");
+			statement.execute("delete from node");
+			statement.execute("insert into node values ('" + name + "')");
+		}
+		return dataSource;
+	}
+}
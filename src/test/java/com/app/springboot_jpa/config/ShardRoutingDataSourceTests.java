@@ -0,0 +1,95 @@
+package com.app.springboot_jpa.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ShardRoutingDataSourceTests {
+
+	private List<DataSource> shards;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate transaction;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		shards = List.of(database("shard0"), database("shard1"), database("shard2"));
+		ShardRoutingDataSource routing = new ShardRoutingDataSource(shards, ShardRoutingDataSource.Strategy.RANGE,
+				10);
+		routing.afterPropertiesSet();
+		jdbcTemplate = new JdbcTemplate(routing);
+		transaction = new TransactionTemplate(new DataSourceTransactionManager(routing));
+	}
+
+	@Test
+	void rangeStrategyKeepsConsecutiveIdsTogether() {
+		ShardRoutingDataSource routing = new ShardRoutingDataSource(shards, ShardRoutingDataSource.Strategy.RANGE,
+				10);
+		assertEquals(0, routing.shardFor(1));
+		assertEquals(0, routing.shardFor(10));
+		assertEquals(1, routing.shardFor(11));
+		assertEquals(2, routing.shardFor(21));
+		assertEquals(2, routing.shardFor(1000));
+	}
+
+	@Test
+	void hashStrategySpreadsIdsOverAllShards() {
+		ShardRoutingDataSource routing = new ShardRoutingDataSource(shards, ShardRoutingDataSource.Strategy.HASH,
+				10);
+		Set<Integer> used = new HashSet<>();
+		for (long id = 1; id <= 30; id++) {
+			int shard = routing.shardFor(id);
+			assertTrue(shard >= 0 && shard < 3);
+			assertEquals(shard, routing.shardFor(id));
+			used.add(shard);
+		}
+		assertEquals(3, used.size());
+	}
+
+	@Test
+	void connectionsComeFromTheShardInContext() {
+		assertEquals("shard0", node());
+		Integer previous = ShardContext.set(2);
+		try {
+			assertEquals("shard2", transaction.execute(status -> node()));
+			Integer inner = ShardContext.set(1);
+			assertEquals("shard1", node());
+			ShardContext.restore(inner);
+			assertEquals("shard2", node());
+		} finally {
+			ShardContext.restore(previous);
+		}
+		assertNull(ShardContext.current());
+		assertEquals("shard0", node());
+	}
+
+	private String node() {
+		return jdbcTemplate.queryForObject("select name from node", String.class);
+	}
+
+	private static DataSource database(String name) throws SQLException {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("create table if not exists node (name varchar(20))");
+			statement.execute("delete from node");
+			statement.execute("insert into node values ('" + name + "')");
+		}
+		return dataSource;
+	}
+}
@@ -0,0 +1,88 @@
+package com.app.springboot_jpa.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.app.springboot_jpa.dto.AuditEvent;
+
+class AuditEventRingBufferTests {
+
+	private static final int PRODUCERS = 4;
+
+	private static final int EVENTS_PER_PRODUCER = 200_000;
+
+	@Test
+	void offerFailsWhenFullAndDrainFreesSlots() {
+		AuditEventRingBuffer buffer = new AuditEventRingBuffer(4);
+		for (long i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(event("p", i)));
+		}
+		assertFalse(buffer.offer(event("p", 4L)));
+		List<Long> drained = new ArrayList<>();
+		assertEquals(2, buffer.drain(event -> drained.add(event.entityId()), 2));
+		assertTrue(buffer.offer(event("p", 4L)));
+		assertEquals(3, buffer.drain(event -> drained.add(event.entityId()), 10));
+		assertEquals(List.of(0L, 1L, 2L, 3L, 4L), drained);
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	void concurrentProducersAndOneDrainerLoseAndDuplicateNothing() throws Exception {
+		AuditEventRingBuffer buffer = new AuditEventRingBuffer(1024);
+		long[] next = new long[PRODUCERS];
+		CountDownLatch start = new CountDownLatch(1);
+		try (ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS + 1)) {
+			List<Future<?>> producers = new ArrayList<>();
+			for (int producer = 0; producer < PRODUCERS; producer++) {
+				String name = "p" + producer;
+				producers.add(executor.submit(() -> {
+					start.await();
+					for (long i = 0; i < EVENTS_PER_PRODUCER; i++) {
+						// Un buffer lleno rechaza el evento; aquí se reintenta para verificar que no se pierde ninguno
+						while (!buffer.offer(event(name, i))) {
+							Thread.onSpinWait();
+						}
+					}
+					return null;
+				}));
+			}
+			Future<Integer> drainer = executor.submit(() -> {
+				start.await();
+				int total = 0;
+				while (total < PRODUCERS * EVENTS_PER_PRODUCER) {
+					total += buffer.drain(event -> {
+						int producer = Integer.parseInt(event.entity().substring(1));
+						// Cada productor publica en orden, así que se detecta un evento perdido o repetido
+						assertEquals(next[producer], event.entityId());
+						next[producer]++;
+					}, 256);
+				}
+				return total;
+			});
+			start.countDown();
+			for (Future<?> producer : producers) {
+				producer.get(60, TimeUnit.SECONDS);
+			}
+			assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, drainer.get(60, TimeUnit.SECONDS));
+		}
+		for (long count : next) {
+			assertEquals(EVENTS_PER_PRODUCER, count);
+		}
+		assertEquals(0, buffer.size());
+	}
+
+	private static AuditEvent event(String producer, Long id) {
+		return new AuditEvent(producer, id, AuditEvent.Action.CREATE, 0);
+	}
+}
@@ -0,0 +1,69 @@
+package com.app.springboot_jpa.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.app.springboot_jpa.dto.AuditEvent;
+
+class AuditTrailTests {
+
+	private static final int CAPACITY = 16;
+
+	// Un AuditLogWriter sin iniciar: wake no hace nada: los eventos quedan en el buffer para drain
+	private final AuditTrail auditTrail = new AuditTrail(CAPACITY,
+			new StaticListableBeanFactory(Map.of("auditLogWriter", new AuditLogWriter()))
+					.getBeanProvider(AuditLogWriter.class));
+
+	@Test
+	void consecutiveIdsOfATransactionBecomeOneRangeAndTheRestIsBounded() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			for (long id = 1; id <= 20_000; id++) {
+				auditTrail.record("Person", id, AuditEvent.Action.CREATE);
+			}
+			// Ids no consecutivos: caben CAPACITY - 1 además del rango, el resto se descarta
+			for (long id = 30_000; id < 30_040; id += 2) {
+				auditTrail.record("Person", id, AuditEvent.Action.UPDATE);
+			}
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.getSynchronizations()
+					.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		List<AuditEvent> events = drain();
+		assertEquals(CAPACITY, events.size());
+		assertEquals(new AuditEvent("Person", 1L, AuditEvent.Action.CREATE, events.get(0).occurredAt(), 20_000L),
+				events.get(0));
+		assertEquals(20 - (CAPACITY - 1), auditTrail.getDroppedEvents());
+	}
+
+	@Test
+	void recordAllOutsideATransactionQueuesOneEventPerRun() {
+		List<Long> ids = new ArrayList<>(LongStream.rangeClosed(1, 5_000).boxed().toList());
+		ids.addAll(List.of(7_000L, 7_001L, 9_000L));
+		auditTrail.recordAll("Person", ids, AuditEvent.Action.DELETE);
+
+		List<AuditEvent> events = drain();
+		assertEquals(3, events.size());
+		assertEquals(List.of(1L, 7_000L, 9_000L), events.stream().map(AuditEvent::entityId).toList());
+		assertEquals(List.of(5_000L, 7_001L, 9_000L), events.stream().map(AuditEvent::lastEntityId).toList());
+		assertEquals(0, auditTrail.getDroppedEvents());
+	}
+
+	private List<AuditEvent> drain() {
+		List<AuditEvent> events = new ArrayList<>();
+		auditTrail.drain(events::add, Integer.MAX_VALUE);
+		return events;
+	}
+}
@@ -0,0 +1,64 @@
+package com.app.springboot_jpa.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTests {
+
+	@Test
+	void estimateStaysWithinThreeStandardErrors() {
+		for (int distinct : new int[] { 1_000, 100_000, 1_000_000 }) {
+			HyperLogLog sketch = new HyperLogLog(14);
+			for (int i = 0; i < distinct; i++) {
+				sketch.add("persona-" + i);
+				// Los repetidos no cambian la estimación
+				sketch.add("persona-" + (i / 2));
+			}
+			double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+			assertTrue(error < 3 * sketch.getStandardError(), distinct + " valores, error " + error);
+		}
+	}
+
+	@Test
+	void mergeEqualsAddingEveryValueToOneSketch() {
+		HyperLogLog left = new HyperLogLog(12);
+		HyperLogLog right = new HyperLogLog(12);
+		HyperLogLog all = new HyperLogLog(12);
+		for (int i = 0; i < 50_000; i++) {
+			String value = "valor-" + i;
+			(i < 30_000 ? left : right).add(value);
+			if (i >= 20_000 && i < 30_000) {
+				right.add(value);
+			}
+			all.add(value);
+		}
+		left.merge(right);
+		assertArrayEquals(all.toBytes(), left.toBytes());
+		assertEquals(all.estimate(), HyperLogLog.fromBytes(left.toBytes()).estimate());
+	}
+
+	@Test
+	void smallSketchesUseTheFixedAlphaConstants() {
+		assertEquals(0.673, HyperLogLog.alpha(16));
+		assertEquals(0.697, HyperLogLog.alpha(32));
+		assertEquals(0.709, HyperLogLog.alpha(64));
+		assertEquals(0.7213 / (1 + 1.079 / 128), HyperLogLog.alpha(128));
+		for (int precision = 4; precision <= 6; precision++) {
+			HyperLogLog sketch = new HyperLogLog(precision);
+			for (int i = 0; i < 10_000; i++) {
+				sketch.add("persona-" + i);
+			}
+			double error = Math.abs(sketch.estimate() - 10_000) / 10_000d;
+			assertTrue(error < 3 * sketch.getStandardError(), "precisión " + precision + ", error " + error);
+		}
+	}
+
+	@Test
+	void sketchesOfDifferentPrecisionAreNotMerged() {
+		assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(12).merge(new HyperLogLog(14)));
+	}
+}
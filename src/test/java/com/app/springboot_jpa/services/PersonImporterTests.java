@@ -0,0 +1,40 @@
+package com.app.springboot_jpa.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.app.springboot_jpa.entities.Person;
+
+class PersonImporterTests {
+
+	@Test
+	void csvFieldsMayBeQuotedWithCommasAndEscapedQuotes() {
+		Person person = PersonImporter.parseCsv("\"Ana, María\",\"O\"\"Neil\",Java");
+		assertEquals("Ana, María", person.getName());
+		assertEquals("O\"Neil", person.getLastname());
+		assertEquals("Java", person.getProgramingLanguage());
+	}
+
+	@Test
+	void exporterIdColumnIsDiscarded() {
+		Person person = PersonImporter.parseCsv("42,Ana,Gomez,Kotlin");
+		assertNull(person.getId());
+		assertEquals("Ana", person.getName());
+		assertEquals("Kotlin", person.getProgramingLanguage());
+	}
+
+	@Test
+	void emptyFieldIsNullAndQuotedEmptyFieldIsEmpty() {
+		Person person = PersonImporter.parseCsv("Ana,\"\",");
+		assertEquals("", person.getLastname());
+		assertNull(person.getProgramingLanguage());
+	}
+
+	@Test
+	void wrongFieldCountIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> PersonImporter.parseCsv("Ana,Gomez"));
+	}
+}